@@ -0,0 +1,202 @@
+package com.revshop.cache;
+
+import com.revshop.catalog.ProductChangeListener;
+import com.revshop.dto.ProductDTO;
+import com.revshop.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Read-through cache of products by ID in front of ProductRepository.
+ * Bounded by size (least recently used entries are evicted first) and by TTL.
+ *
+ * Every committed product write bumps the version of the product's stripe. A load that
+ * started before a write to its stripe is not cached, so a stale row never reaches the cache,
+ * while writes to other products (a stock update on every checkout) leave loads alone.
+ */
+@Component
+public class ProductCache implements ProductChangeListener {
+
+    private static final int STRIPES = 64;
+
+    private final ProductRepository productRepository;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<Long, Entry> entries;
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong sizeEvictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductCache(ProductRepository productRepository,
+                        @Value("${revshop.product-cache.max-size:10000}") int maxSize,
+                        @Value("${revshop.product-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.productRepository = productRepository;
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > ProductCache.this.maxSize) {
+                    sizeEvictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get a product, loading it from the database on a miss
+     */
+    public Optional<ProductDTO> get(Long productId) {
+        ProductDTO cached = lookup(productId);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.of(cached);
+        }
+        misses.incrementAndGet();
+
+        long loadVersion = versions.get(stripe(productId));
+        Optional<ProductDTO> loaded = productRepository.findProductDTOById(productId);
+        loaded.ifPresent(product -> store(product, loadVersion));
+        return loaded;
+    }
+
+    /**
+     * Get several products at once; all misses are loaded with a single query
+     */
+    public Map<Long, ProductDTO> getAll(Collection<Long> productIds) {
+        Map<Long, ProductDTO> found = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long productId : productIds) {
+            if (found.containsKey(productId) || missing.contains(productId)) {
+                continue;
+            }
+            ProductDTO cached = lookup(productId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                found.put(productId, cached);
+            } else {
+                missing.add(productId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            misses.addAndGet(missing.size());
+            Map<Long, Long> loadVersions = new HashMap<>();
+            for (Long productId : missing) {
+                loadVersions.put(productId, versions.get(stripe(productId)));
+            }
+            for (ProductDTO product : productRepository.findProductDTOsByIds(missing)) {
+                store(product, loadVersions.get(product.getId()));
+                found.put(product.getId(), product);
+            }
+        }
+        return found;
+    }
+
+    public void invalidate(Long productId) {
+        synchronized (entries) {
+            versions.incrementAndGet(stripe(productId));
+            if (entries.remove(productId) != null) {
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", TimeUnit.NANOSECONDS.toSeconds(ttlNanos));
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hitCount / requests);
+        stats.put("sizeEvictions", sizeEvictions.get());
+        stats.put("expirations", expirations.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    @Override
+    public void onCatalogLoaded(List<ProductDTO> products) {
+        // Not preloaded: the cache only holds what is actually read
+        synchronized (entries) {
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                versions.incrementAndGet(stripe);
+            }
+            entries.clear();
+        }
+    }
+
+    @Override
+    public void onProductSaved(ProductDTO product) {
+        synchronized (entries) {
+            boolean cached = entries.containsKey(product.getId());
+            invalidate(product.getId());
+            // Refresh products that are already hot; new ones (e.g. a bulk import) must not push them out
+            if (cached) {
+                store(product, versions.get(stripe(product.getId())));
+            }
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Long productId) {
+        invalidate(productId);
+    }
+
+    private ProductDTO lookup(Long productId) {
+        synchronized (entries) {
+            Entry entry = entries.get(productId);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAt > 0) {
+                entries.remove(productId);
+                expirations.incrementAndGet();
+                return null;
+            }
+            return entry.product;
+        }
+    }
+
+    private void store(ProductDTO product, long loadVersion) {
+        synchronized (entries) {
+            // A write to this stripe committed while the row was loading; the row may be stale
+            if (versions.get(stripe(product.getId())) != loadVersion) {
+                return;
+            }
+            entries.put(product.getId(), new Entry(product, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    private static int stripe(Long productId) {
+        return (int) (productId ^ (productId >>> 32)) & (STRIPES - 1);
+    }
+
+    private record Entry(ProductDTO product, long expiresAt) {}
+}
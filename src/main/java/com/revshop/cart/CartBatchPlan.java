@@ -0,0 +1,132 @@
+package com.revshop.cart;
+
+import com.revshop.dto.CartOperation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Applies a batch of cart operations to a copy of a user's cart lines and works out the row
+ * changes: lines to delete, update and insert. Nothing is changed if any operation is invalid,
+ * so callers can apply the plan as a whole.
+ */
+final class CartBatchPlan {
+
+    /**
+     * Before/after state of one line; before is null for inserts, after is null for deletes
+     */
+    record LineChange(CartLine before, CartLine after) {}
+
+    private final LinkedHashMap<Long, CartLine> lines;
+    private final List<LineChange> changes = new ArrayList<>();
+
+    /**
+     * @param current the user's lines keyed by product ID
+     * @param newLine a fresh line (quantity 0) for a product, or null if the product does not exist
+     * @throws IllegalArgumentException for an unknown product or cart item, or a quantity below 1
+     */
+    CartBatchPlan(Map<Long, CartLine> current, List<CartOperation> operations, Function<Long, CartLine> newLine) {
+        lines = new LinkedHashMap<>(current);
+        for (CartOperation operation : operations) {
+            if (operation == null || operation.op() == null) {
+                throw new IllegalArgumentException("Each operation needs an op: add, update or remove.");
+            }
+            switch (operation.op()) {
+                case ADD -> {
+                    int quantity = quantityOf(operation);
+                    if (operation.productId() == null) {
+                        throw new IllegalArgumentException("add needs a productId.");
+                    }
+                    CartLine line = lines.get(operation.productId());
+                    if (line == null) {
+                        line = newLine.apply(operation.productId());
+                        if (line == null) {
+                            throw new IllegalArgumentException("Product not found with ID: " + operation.productId());
+                        }
+                    }
+                    lines.put(operation.productId(), line.withQuantity(line.quantity() + quantity));
+                }
+                case UPDATE -> {
+                    int quantity = quantityOf(operation);
+                    CartLine line = find(operation.cartItemId());
+                    if (line == null) {
+                        throw new IllegalArgumentException("Cart item not found: " + operation.cartItemId());
+                    }
+                    lines.put(line.productId(), line.withQuantity(quantity));
+                }
+                case REMOVE -> {
+                    // Removing a line that is already gone is not an error, as with DELETE /api/cart/{id}
+                    CartLine line = find(operation.cartItemId());
+                    if (line != null) {
+                        lines.remove(line.productId());
+                    }
+                }
+            }
+        }
+
+        for (CartLine before : current.values()) {
+            CartLine after = lines.get(before.productId());
+            if (after == null || !Objects.equals(after.id(), before.id())) {
+                changes.add(new LineChange(before, null));
+            } else if (after.quantity() != before.quantity()) {
+                changes.add(new LineChange(before, after));
+            }
+        }
+        for (CartLine after : lines.values()) {
+            CartLine before = current.get(after.productId());
+            if (before == null || !Objects.equals(after.id(), before.id())) {
+                changes.add(new LineChange(null, after));
+            }
+        }
+    }
+
+    /**
+     * The user's lines after the batch, keyed by product ID
+     */
+    Map<Long, CartLine> lines() {
+        return lines;
+    }
+
+    /**
+     * Row changes, deletes first so a product removed and added again does not meet its old row
+     */
+    List<LineChange> changes() {
+        return changes;
+    }
+
+    Collection<CartLine> inserts() {
+        return changes.stream().filter(change -> change.before() == null).map(LineChange::after).toList();
+    }
+
+    Collection<CartLine> updates() {
+        return changes.stream().filter(change -> change.before() != null && change.after() != null).map(LineChange::after).toList();
+    }
+
+    Collection<Long> deletes() {
+        return changes.stream().filter(change -> change.after() == null).map(change -> change.before().id()).toList();
+    }
+
+    private CartLine find(Long cartItemId) {
+        if (cartItemId == null) {
+            return null;
+        }
+        for (CartLine line : lines.values()) {
+            if (cartItemId.equals(line.id())) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    private static int quantityOf(CartOperation operation) {
+        if (operation.quantity() == null || operation.quantity() < 1) {
+            throw new IllegalArgumentException(operation.op().name().toLowerCase() + " needs a quantity of at least 1.");
+        }
+        return operation.quantity();
+    }
+}
@@ -0,0 +1,94 @@
+package com.revshop.cart;
+
+import com.revshop.dto.CartOperation;
+import com.revshop.model.Cart;
+import com.revshop.repository.CartRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Write-through side of batch cart changes: one transaction that locks the user's cart rows,
+ * plans the batch against them and writes the result as JDBC batches (deletes, updates, inserts).
+ */
+@Component
+public class CartBatchWriter {
+
+    private static final String DELETE_SQL = "DELETE FROM cart WHERE cart_id = ?";
+    private static final String UPDATE_SQL = "UPDATE cart SET quantity = ?, total_price = ? WHERE cart_id = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO cart (user_id, product_id, product_name, quantity, price, total_price, image_url, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final CartRepository cartRepository;
+    private final CartSummaryCache summaries;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public CartBatchWriter(CartRepository cartRepository, CartSummaryCache summaries, JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager) {
+        this.cartRepository = cartRepository;
+        this.summaries = summaries;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Apply the operations to the user's cart in one transaction
+     * @throws IllegalArgumentException if an operation is invalid; nothing is written then
+     */
+    public void apply(Long userId, List<CartOperation> operations, Function<Long, CartLine> newLine) {
+        List<CartBatchPlan.LineChange> changes;
+        try {
+            changes = transactionTemplate.execute(status -> write(userId, operations, newLine));
+        } catch (DuplicateKeyException e) {
+            // A single add inserted one of our new products first; the retry sees its row
+            changes = transactionTemplate.execute(status -> write(userId, operations, newLine));
+        }
+        changes.forEach(change -> summaries.apply(userId, change.before(), change.after()));
+    }
+
+    private List<CartBatchPlan.LineChange> write(Long userId, List<CartOperation> operations, Function<Long, CartLine> newLine) {
+        Map<Long, CartLine> current = new LinkedHashMap<>();
+        for (Cart row : cartRepository.findByUserIdForUpdate(userId)) {
+            current.put(row.getProductId(), CartLine.of(row));
+        }
+        CartBatchPlan plan = new CartBatchPlan(current, operations, newLine);
+
+        List<Long> deletes = new ArrayList<>(plan.deletes());
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, deletes, deletes.size(), (ps, id) -> ps.setLong(1, id));
+        }
+        List<CartLine> updates = new ArrayList<>(plan.updates());
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (ps, line) -> {
+                ps.setInt(1, line.quantity());
+                ps.setBigDecimal(2, line.totalPrice().toBigDecimal());
+                ps.setLong(3, line.id());
+            });
+        }
+        List<CartLine> inserts = new ArrayList<>(plan.inserts());
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts, inserts.size(), (ps, line) -> {
+                ps.setLong(1, line.userId());
+                ps.setLong(2, line.productId());
+                ps.setString(3, line.productName());
+                ps.setInt(4, line.quantity());
+                ps.setBigDecimal(5, line.price().toBigDecimal());
+                ps.setBigDecimal(6, line.totalPrice().toBigDecimal());
+                ps.setString(7, line.imageUrl());
+                ps.setTimestamp(8, Timestamp.valueOf(line.createdAt()));
+            });
+        }
+        return plan.changes();
+    }
+}
@@ -0,0 +1,230 @@
+package com.revshop.cart;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Append-only log of cart changes not yet written to the database, one JSON entry per line.
+ *
+ * Entries go to the current segment file. Before a flush the segment is sealed (roll) and a new
+ * one started; sealed segments are deleted once the flush has committed. Segments still on disk
+ * at startup hold changes that never reached the database and are replayed.
+ * With sync off an appended entry survives a process crash; sync forces it to disk as well.
+ *
+ * Appends are group-committed: callers queue their entries and one writer thread writes all
+ * entries queued since its last write with a single write, and a single force when syncing.
+ * Concurrent cart changes share that I/O instead of taking turns at it.
+ */
+final class CartJournal {
+
+    private static final String PREFIX = "cart-";
+    private static final String SUFFIX = ".journal";
+
+    /**
+     * Latest state of one cart row; a null line means the row was removed
+     */
+    record Entry(Long cartId, CartLine line) {}
+
+    private final Path directory;
+    private final boolean sync;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    // Everything below is guarded by this
+    private final List<Path> sealed = new ArrayList<>();
+    private long sequence;
+    private Path current;
+    private FileChannel channel;
+
+    private final BlockingQueue<Append> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    CartJournal(Path directory, boolean sync) {
+        this.directory = directory;
+        this.sync = sync;
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+                files.forEach(sealed::add);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open cart journal in " + directory, e);
+        }
+        sealed.sort(null);
+        for (Path segment : sealed) {
+            sequence = Math.max(sequence, sequenceOf(segment));
+        }
+        writer = new Thread(this::writeQueued, "cart-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queue entries for the writer thread; the returned future completes once they are written
+     * (and forced, with sync on), or fails with the write's error
+     */
+    CompletableFuture<Void> append(List<Entry> entries) {
+        if (closed) {
+            throw new IllegalStateException("Cart journal is closed");
+        }
+        Append append = new Append(entries, new CompletableFuture<>());
+        queue.add(append);
+        return append.written();
+    }
+
+    private void writeQueued() {
+        List<Append> batch = new ArrayList<>();
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+            List<Entry> entries = new ArrayList<>();
+            for (Append append : batch) {
+                if (append == Append.STOP) {
+                    stop = true;
+                } else {
+                    entries.addAll(append.entries());
+                }
+            }
+            try {
+                if (!entries.isEmpty()) {
+                    write(entries);
+                }
+                batch.forEach(append -> append.written().complete(null));
+            } catch (RuntimeException e) {
+                batch.forEach(append -> append.written().completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    private synchronized void write(List<Entry> entries) {
+        try {
+            if (channel == null) {
+                current = directory.resolve(String.format("%s%012d%s", PREFIX, ++sequence, SUFFIX));
+                channel = FileChannel.open(current, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(256 * entries.size());
+            for (Entry entry : entries) {
+                mapper.writeValue(out, entry);
+                out.write('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (sync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to cart journal " + current, e);
+        }
+    }
+
+    /**
+     * Seal the current segment; returns every sealed segment not yet deleted, oldest first
+     */
+    synchronized List<Path> roll() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot close cart journal " + current, e);
+            }
+            sealed.add(current);
+            channel = null;
+            current = null;
+        }
+        return List.copyOf(sealed);
+    }
+
+    /**
+     * Entries of the sealed segments, oldest first; a torn last line from a crash is skipped
+     */
+    synchronized List<Entry> readSealed() {
+        List<Entry> entries = new ArrayList<>();
+        for (Path segment : sealed) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        entries.add(mapper.readValue(line, Entry.class));
+                    } catch (IOException e) {
+                        System.err.println("⚠️ Skipping unreadable cart journal entry in " + segment.getFileName() + ": " + e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read cart journal " + segment, e);
+            }
+        }
+        return entries;
+    }
+
+    synchronized void delete(List<Path> segments) {
+        for (Path segment : segments) {
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                System.err.println("❌ Cannot delete cart journal " + segment + ": " + e.getMessage());
+            }
+            sealed.remove(segment);
+        }
+    }
+
+    synchronized int segmentCount() {
+        return sealed.size() + (channel != null ? 1 : 0);
+    }
+
+    /**
+     * Write what is still queued, stop the writer thread and seal the current segment
+     */
+    void close() {
+        closed = true;
+        queue.add(Append.STOP);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        roll();
+    }
+
+    private record Append(List<Entry> entries, CompletableFuture<Void> written) {
+        static final Append STOP = new Append(List.of(), new CompletableFuture<>());
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
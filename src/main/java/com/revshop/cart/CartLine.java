@@ -0,0 +1,47 @@
+package com.revshop.cart;
+
+import com.revshop.model.Cart;
+import com.revshop.money.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable state of one cart row, as held by CartStore and written to its journal
+ */
+public record CartLine(Long id, Long userId, Long productId, String productName, String imageUrl,
+                       int quantity, Money price, LocalDateTime createdAt) {
+
+    public CartLine withId(Long id) {
+        return new CartLine(id, userId, productId, productName, imageUrl, quantity, price, createdAt);
+    }
+
+    public CartLine withQuantity(int quantity) {
+        return new CartLine(id, userId, productId, productName, imageUrl, quantity, price, createdAt);
+    }
+
+    public Money totalPrice() {
+        return price.times(quantity);
+    }
+
+    public static CartLine of(Cart cart) {
+        return new CartLine(cart.getId(), cart.getUserId(), cart.getProductId(), cart.getProductName(),
+                cart.getImageUrl(), cart.getQuantity(), cart.getPrice(), cart.getCreatedAt());
+    }
+
+    /**
+     * Detached Cart for callers; changing it does not change the store
+     */
+    public Cart toCart() {
+        Cart cart = new Cart();
+        cart.setId(id);
+        cart.setUserId(userId);
+        cart.setProductId(productId);
+        cart.setProductName(productName);
+        cart.setImageUrl(imageUrl);
+        cart.setQuantity(quantity);
+        cart.setPrice(price);
+        cart.setTotalPrice(totalPrice());
+        cart.setCreatedAt(createdAt);
+        return cart;
+    }
+}
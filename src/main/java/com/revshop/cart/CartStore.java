@@ -0,0 +1,555 @@
+package com.revshop.cart;
+
+import com.revshop.dto.CartOperation;
+import com.revshop.dto.CartSummaryDTO;
+import com.revshop.model.Cart;
+import com.revshop.money.Money;
+import com.revshop.repository.CartRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Write-behind cart store: carts are read and changed in memory, every change is appended to
+ * a local journal first, and a background flusher writes the latest state of each changed row
+ * to the cart table in one batched transaction.
+ *
+ * A user's cart is loaded from the database on first use and dropped again after it has been
+ * idle and fully flushed. Cart IDs are allocated here, so the store must be the only writer of
+ * the cart table (one application instance). With revshop.cart.write-mode=write-through the
+ * store stays off and CartService writes each change straight to the database as before.
+ *
+ * Each user's cart is locked on its own, so changes to different carts run in parallel. A change
+ * is made in memory and queued for the journal under its cart's lock; the caller then waits for
+ * the journal write holding no lock, and CartJournal writes the changes queued meanwhile together.
+ */
+@Component
+public class CartStore {
+
+    public static final String WRITE_BEHIND = "write-behind";
+    public static final String WRITE_THROUGH = "write-through";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO cart (cart_id, user_id, product_id, product_name, quantity, price, total_price, image_url, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE cart SET quantity = ?, price = ?, total_price = ? WHERE cart_id = ?";
+    private static final String DELETE_SQL = "DELETE FROM cart WHERE cart_id = ?";
+    private static final long EVICTION_SCAN_MILLIS = 60_000;
+
+    private final CartRepository cartRepository;
+    private final CartSummaryCache summaries;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Path journalDirectory;
+    private final boolean journalSync;
+    private final long flushIntervalMillis;
+    private final long idleMillis;
+
+    private final Map<Long, UserCart> carts = new ConcurrentHashMap<>();
+    private final Map<Long, Long> owners = new ConcurrentHashMap<>();
+    // Cart IDs that have a row in the table; changed only by loads and by the flusher
+    private final Set<Long> stored = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Change> pending = new ConcurrentHashMap<>();
+    private volatile CartJournal journal;
+
+    private final Object flushLock = new Object();
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedChanges = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private long lastEvictionScan = System.currentTimeMillis();
+    private ScheduledExecutorService flusher;
+
+    public CartStore(CartRepository cartRepository, CartSummaryCache summaries,
+                     JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                     @Value("${revshop.cart.write-mode:" + WRITE_BEHIND + "}") String writeMode,
+                     @Value("${revshop.cart.journal-dir:cart-journal}") String journalDirectory,
+                     @Value("${revshop.cart.journal-sync:false}") boolean journalSync,
+                     @Value("${revshop.cart.flush-interval-ms:500}") long flushIntervalMillis,
+                     @Value("${revshop.cart.idle-minutes:30}") long idleMinutes) {
+        if (!WRITE_BEHIND.equals(writeMode) && !WRITE_THROUGH.equals(writeMode)) {
+            throw new IllegalArgumentException("revshop.cart.write-mode must be " + WRITE_BEHIND + " or " + WRITE_THROUGH + ", was " + writeMode);
+        }
+        this.cartRepository = cartRepository;
+        this.summaries = summaries;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = WRITE_BEHIND.equals(writeMode);
+        this.journalDirectory = Path.of(journalDirectory);
+        this.journalSync = journalSync;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.idleMillis = TimeUnit.MINUTES.toMillis(idleMinutes);
+    }
+
+    /**
+     * True in write-behind mode; CartService writes through to the database otherwise
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replay changes left in the journal by a crash, then start the flusher
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        journal = new CartJournal(journalDirectory, journalSync);
+        recover();
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(cart_id), 0) FROM cart", Long.class);
+        nextId.set(maxId == null ? 0 : maxId);
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushInBackground, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        System.out.println("🛒 Write-behind cart store started (journal: " + journalDirectory.toAbsolutePath() + ")");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!enabled || flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Unflushed changes stay in the journal and are replayed on the next start
+            System.err.println("❌ Final cart flush failed: " + e.getMessage());
+        }
+        journal.close();
+    }
+
+    public List<Cart> getCart(Long userId) {
+        return withCart(userId, cart -> cart.lines.values().stream().map(CartLine::toCart).toList());
+    }
+
+    /**
+     * Summary of a user's cart: from memory when the cart is loaded, otherwise from the
+     * database, which is current for carts that are not in memory
+     */
+    public CartSummaryDTO summarize(Long userId) {
+        UserCart cart = carts.get(userId);
+        if (cart != null) {
+            synchronized (cart) {
+                if (!cart.evicted) {
+                    int lines = 0;
+                    long units = 0;
+                    long subtotal = 0;
+                    for (CartLine line : cart.lines.values()) {
+                        lines++;
+                        units += line.quantity();
+                        subtotal = Math.addExact(subtotal, line.totalPrice().minorUnits());
+                    }
+                    return new CartSummaryDTO(userId, lines, units, Money.ofMinor(subtotal));
+                }
+            }
+        }
+        return cartRepository.findSummaryByUserId(userId);
+    }
+
+    /**
+     * Add units of a product; an existing line keeps its price and gets the extra quantity
+     */
+    public Cart add(Long userId, Long productId, String productName, Money price, String imageUrl, int quantity) {
+        return withCart(userId, cart -> {
+            CartLine existing = cart.lines.get(productId);
+            CartLine line = existing != null
+                    ? existing.withQuantity(existing.quantity() + quantity)
+                    : new CartLine(nextId.incrementAndGet(), userId, productId, productName, imageUrl, quantity, price, LocalDateTime.now());
+            record(cart, userId, line.id(), line);
+            cart.lines.put(productId, line);
+            owners.put(line.id(), userId);
+            summaries.apply(userId, existing, line);
+            return line.toCart();
+        });
+    }
+
+    /**
+     * Apply a batch of operations to one user's cart as a whole: all of them or, if one is
+     * invalid, none. The batch is journaled with a single write and flushed together.
+     */
+    public List<Cart> applyBatch(Long userId, List<CartOperation> operations, Function<Long, CartLine> newLine) {
+        return withCart(userId, cart -> {
+            CartBatchPlan plan = new CartBatchPlan(cart.lines, operations, productId -> {
+                CartLine line = newLine.apply(productId);
+                return line == null ? null : line.withId(nextId.incrementAndGet());
+            });
+            for (CartBatchPlan.LineChange change : plan.changes()) {
+                if (change.after() == null) {
+                    record(cart, userId, change.before().id(), null);
+                    owners.remove(change.before().id());
+                } else {
+                    record(cart, userId, change.after().id(), change.after());
+                    owners.put(change.after().id(), userId);
+                }
+                summaries.apply(userId, change.before(), change.after());
+            }
+            cart.lines.clear();
+            cart.lines.putAll(plan.lines());
+            return cart.lines.values().stream().map(CartLine::toCart).toList();
+        });
+    }
+
+    public Cart updateQuantity(Long cartId, int quantity) {
+        Long userId = ownerOf(cartId);
+        if (userId == null) {
+            throw new RuntimeException("Cart item not found");
+        }
+        return withCart(userId, cart -> {
+            CartLine line = cart.find(cartId);
+            if (line == null) {
+                throw new RuntimeException("Cart item not found");
+            }
+            CartLine updated = line.withQuantity(quantity);
+            record(cart, userId, cartId, updated);
+            cart.lines.put(updated.productId(), updated);
+            summaries.apply(userId, line, updated);
+            return updated.toCart();
+        });
+    }
+
+    public void remove(Long cartId) {
+        Long userId = ownerOf(cartId);
+        if (userId == null) {
+            return;
+        }
+        withCart(userId, cart -> {
+            CartLine line = cart.find(cartId);
+            if (line != null) {
+                record(cart, userId, cartId, null);
+                cart.lines.remove(line.productId());
+                owners.remove(cartId);
+                summaries.apply(userId, line, null);
+            }
+            return null;
+        });
+    }
+
+    public void clear(Long userId) {
+        withCart(userId, cart -> {
+            for (CartLine line : cart.lines.values()) {
+                record(cart, userId, line.id(), null);
+                owners.remove(line.id());
+            }
+            cart.lines.clear();
+            summaries.clear(userId);
+            return null;
+        });
+    }
+
+    /**
+     * Check out the user's cart: the checkout gets the cart's lines while the cart stays locked,
+     * and those lines are removed once it returns. Other changes to this cart, another checkout
+     * included, wait for it, so no line is ordered twice and none added meanwhile is lost.
+     * If the checkout throws, the cart is left as it was.
+     */
+    public <T> T checkout(Long userId, Function<List<Cart>, T> checkout) {
+        return withCart(userId, cart -> {
+            List<CartLine> lines = List.copyOf(cart.lines.values());
+            T result = checkout.apply(lines.stream().map(CartLine::toCart).toList());
+            for (CartLine line : lines) {
+                record(cart, userId, line.id(), null);
+                cart.lines.remove(line.productId());
+                owners.remove(line.id());
+                summaries.apply(userId, line, null);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Write all pending changes in one transaction; returns the number of rows written.
+     * On failure the changes stay pending (and journaled) and are retried by the next flush.
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            // Seal the journal before taking the changes. A change is pending before it is queued
+            // for the journal, so every sealed entry is among the changes taken below or was
+            // flushed earlier, and the sealed segments can go once these changes are written.
+            List<Path> segments = journal.roll();
+            List<Change> changes = new ArrayList<>();
+            for (Change change : pending.values()) {
+                if (pending.remove(change.cartId(), change)) {
+                    changes.add(change);
+                }
+            }
+
+            List<CartLine> inserts = new ArrayList<>();
+            List<CartLine> updates = new ArrayList<>();
+            List<Long> deletes = new ArrayList<>();
+            for (Change change : changes) {
+                if (change.line() == null) {
+                    if (stored.contains(change.cartId())) {
+                        deletes.add(change.cartId());
+                    }
+                } else if (stored.contains(change.cartId())) {
+                    updates.add(change.line());
+                } else {
+                    inserts.add(change.line());
+                }
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(inserts, updates, deletes));
+            } catch (RuntimeException e) {
+                failedFlushes.incrementAndGet();
+                // Changes made since the snapshot are newer and win
+                changes.forEach(change -> pending.putIfAbsent(change.cartId(), change));
+                throw e;
+            }
+
+            inserts.forEach(line -> stored.add(line.id()));
+            deletes.forEach(stored::remove);
+            journal.delete(segments);
+            flushes.incrementAndGet();
+            flushedChanges.addAndGet(inserts.size() + updates.size() + deletes.size());
+            return inserts.size() + updates.size() + deletes.size();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("mode", enabled ? WRITE_BEHIND : WRITE_THROUGH);
+        stats.put("loadedCarts", carts.size());
+        stats.put("pendingChanges", pending.size());
+        stats.put("flushes", flushes.get());
+        stats.put("flushedChanges", flushedChanges.get());
+        stats.put("failedFlushes", failedFlushes.get());
+        stats.put("journalSegments", journal == null ? 0 : journal.segmentCount());
+        return stats;
+    }
+
+    private void flushInBackground() {
+        synchronized (flushLock) {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                System.err.println("❌ Cart flush failed, will retry: " + e.getMessage());
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastEvictionScan >= EVICTION_SCAN_MILLIS) {
+                lastEvictionScan = now;
+                evictIdle(now);
+            }
+        }
+    }
+
+    /**
+     * Drop idle carts with nothing pending; called between flushes so no write is in flight
+     */
+    private void evictIdle(long now) {
+        Set<Long> dirtyUsers = new HashSet<>();
+        pending.values().forEach(change -> dirtyUsers.add(change.userId()));
+        for (Map.Entry<Long, UserCart> entry : carts.entrySet()) {
+            UserCart cart = entry.getValue();
+            synchronized (cart) {
+                // A change made after dirtyUsers was taken also moved lastAccess past now
+                if (now - cart.lastAccess >= idleMillis && !dirtyUsers.contains(entry.getKey())) {
+                    for (CartLine line : cart.lines.values()) {
+                        owners.remove(line.id());
+                        stored.remove(line.id());
+                    }
+                    cart.evicted = true;
+                    carts.remove(entry.getKey(), cart);
+                }
+            }
+        }
+    }
+
+    private void write(List<CartLine> inserts, List<CartLine> updates, List<Long> deletes) {
+        // Deletes first, so a product removed and added again does not meet its old row
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, deletes, deletes.size(), (ps, id) -> ps.setLong(1, id));
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (ps, line) -> {
+                ps.setInt(1, line.quantity());
+                ps.setBigDecimal(2, line.price().toBigDecimal());
+                ps.setBigDecimal(3, line.totalPrice().toBigDecimal());
+                ps.setLong(4, line.id());
+            });
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts, inserts.size(), (ps, line) -> {
+                ps.setLong(1, line.id());
+                ps.setLong(2, line.userId());
+                ps.setLong(3, line.productId());
+                ps.setString(4, line.productName());
+                ps.setInt(5, line.quantity());
+                ps.setBigDecimal(6, line.price().toBigDecimal());
+                ps.setBigDecimal(7, line.totalPrice().toBigDecimal());
+                ps.setString(8, line.imageUrl());
+                ps.setTimestamp(9, line.createdAt() == null ? null : Timestamp.valueOf(line.createdAt()));
+            });
+        }
+    }
+
+    /**
+     * Apply journaled changes that never reached the database. Whether a row was already
+     * inserted is unknown here, so each one is updated first and inserted if that missed.
+     */
+    private void recover() {
+        LinkedHashMap<Long, CartJournal.Entry> latest = new LinkedHashMap<>();
+        journal.readSealed().forEach(entry -> latest.put(entry.cartId(), entry));
+        List<Path> segments = journal.roll();
+        if (segments.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            for (CartJournal.Entry entry : latest.values()) {
+                CartLine line = entry.line();
+                if (line == null) {
+                    write(List.of(), List.of(), List.of(entry.cartId()));
+                } else if (jdbcTemplate.update(UPDATE_SQL, line.quantity(), line.price().toBigDecimal(),
+                        line.totalPrice().toBigDecimal(), line.id()) == 0) {
+                    write(List.of(line), List.of(), List.of());
+                }
+            }
+        });
+        journal.delete(segments);
+        System.out.println("♻️ Recovered " + latest.size() + " cart changes from the journal");
+    }
+
+    /**
+     * Make a change pending and collect it for the journal; caller holds the cart's lock.
+     * Pending comes first, which flush relies on.
+     */
+    private void record(UserCart cart, Long userId, Long cartId, CartLine line) {
+        pending.put(cartId, new Change(cartId, userId, line));
+        cart.unjournaled.add(new CartJournal.Entry(cartId, line));
+    }
+
+    /**
+     * Run an action on the user's cart under its lock, then wait for the journal write of the
+     * changes it recorded, without the lock
+     */
+    private <T> T withCart(Long userId, Function<UserCart, T> action) {
+        while (true) {
+            UserCart cart = carts.get(userId);
+            if (cart == null) {
+                cart = load(userId);
+            }
+            T result;
+            CompletableFuture<Void> journaled = null;
+            synchronized (cart) {
+                // Evicted between the lookup and locking it; load it again
+                if (cart.evicted) {
+                    continue;
+                }
+                cart.lastAccess = System.currentTimeMillis();
+                try {
+                    result = action.apply(cart);
+                } finally {
+                    if (!cart.unjournaled.isEmpty()) {
+                        journaled = journal.append(List.copyOf(cart.unjournaled));
+                        cart.unjournaled.clear();
+                    }
+                }
+            }
+            if (journaled != null) {
+                awaitJournal(journaled);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * A change whose journal write failed stays pending and is still flushed; the caller gets the error
+     */
+    private static void awaitJournal(CompletableFuture<Void> journaled) {
+        try {
+            journaled.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Read a cart from the database without holding any lock; a cart that is not in memory has nothing pending
+     */
+    private UserCart load(Long userId) {
+        List<CartLine> lines = cartRepository.findByUserId(userId).stream().map(CartLine::of).toList();
+        UserCart loaded = new UserCart();
+        // Locked before it is published, so nobody uses it before it is filled
+        synchronized (loaded) {
+            UserCart existing = carts.putIfAbsent(userId, loaded);
+            if (existing != null) {
+                return existing;
+            }
+            for (CartLine line : lines) {
+                loaded.lines.put(line.productId(), line);
+                owners.put(line.id(), userId);
+                stored.add(line.id());
+            }
+            return loaded;
+        }
+    }
+
+    private Long ownerOf(Long cartId) {
+        Long userId = owners.get(cartId);
+        if (userId != null) {
+            return userId;
+        }
+        return cartRepository.findById(cartId).map(Cart::getUserId).orElse(null);
+    }
+
+    private record Change(Long cartId, Long userId, CartLine line) {}
+
+    /**
+     * One user's cart; its monitor guards every field
+     */
+    private static final class UserCart {
+        final LinkedHashMap<Long, CartLine> lines = new LinkedHashMap<>();
+        final List<CartJournal.Entry> unjournaled = new ArrayList<>();
+        long lastAccess = System.currentTimeMillis();
+        boolean evicted;
+
+        CartLine find(Long cartId) {
+            for (CartLine line : lines.values()) {
+                if (line.id().equals(cartId)) {
+                    return line;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.revshop.cart;
+
+import com.revshop.dto.CartSummaryDTO;
+import com.revshop.money.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Per-user cart summaries (line count, units, subtotal) kept in memory for the cart badge.
+ * Every cart mutation applies its before/after difference to a cached summary, so a summary
+ * never has to be recomputed while it stays cached; a miss is loaded once by the caller's query.
+ *
+ * A mutation bumps the version of the user's stripe; a load that raced with a mutation is
+ * returned but not cached, like ProductCache does for product rows.
+ */
+@Component
+public class CartSummaryCache {
+
+    private static final int STRIPES = 64;
+
+    private final int maxSize;
+    private final LinkedHashMap<Long, Summary> entries;
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CartSummaryCache(@Value("${revshop.cart-summary.max-size:100000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Summary> eldest) {
+                return size() > CartSummaryCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Cached summary, or the loader's result on a miss
+     */
+    public CartSummaryDTO get(Long userId, Supplier<CartSummaryDTO> loader) {
+        synchronized (this) {
+            Summary cached = entries.get(userId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached.toDTO(userId);
+            }
+        }
+        misses.incrementAndGet();
+
+        long loadVersion = versions.get(stripe(userId));
+        CartSummaryDTO loaded = loader.get();
+        synchronized (this) {
+            if (versions.get(stripe(userId)) == loadVersion) {
+                entries.put(userId, new Summary(loaded.lineCount(), loaded.unitCount(), loaded.subtotal().minorUnits()));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Record that a cart line changed from before to after; null means the line did not exist
+     */
+    public void apply(Long userId, CartLine before, CartLine after) {
+        int lines = (after != null ? 1 : 0) - (before != null ? 1 : 0);
+        long units = (after != null ? after.quantity() : 0) - (before != null ? before.quantity() : 0);
+        long subtotal = (after != null ? after.totalPrice().minorUnits() : 0) - (before != null ? before.totalPrice().minorUnits() : 0);
+        synchronized (this) {
+            versions.incrementAndGet(stripe(userId));
+            Summary cached = entries.get(userId);
+            if (cached != null) {
+                cached.lines += lines;
+                cached.units += units;
+                cached.subtotalMinor = Math.addExact(cached.subtotalMinor, subtotal);
+            }
+        }
+    }
+
+    /**
+     * The user's cart is now empty
+     */
+    public synchronized void clear(Long userId) {
+        versions.incrementAndGet(stripe(userId));
+        entries.put(userId, new Summary(0, 0, 0));
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    private static int stripe(Long userId) {
+        return (int) (userId ^ (userId >>> 32)) & (STRIPES - 1);
+    }
+
+    private static final class Summary {
+        int lines;
+        long units;
+        long subtotalMinor;
+
+        Summary(int lines, long units, long subtotalMinor) {
+            this.lines = lines;
+            this.units = units;
+            this.subtotalMinor = subtotalMinor;
+        }
+
+        CartSummaryDTO toDTO(Long userId) {
+            return new CartSummaryDTO(userId, lines, units, Money.ofMinor(subtotalMinor));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.revshop.cart;
+
+import com.revshop.money.Money;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Adds units to a cart line in one atomic statement, relying on the unique (user_id, product_id) key.
+ *
+ * On MySQL this is INSERT ... ON DUPLICATE KEY UPDATE; LAST_INSERT_ID(cart_id) makes the
+ * generated key the row's ID whether it was inserted or updated, so the add is one round trip.
+ * Other databases (H2 in tests) update the line if it exists and insert it otherwise; an insert
+ * that loses a race hits the unique key and turns into an update. The ID is then looked up.
+ */
+@Component
+public class CartUpserter {
+
+    private static final String MYSQL_UPSERT =
+            "INSERT INTO cart (user_id, product_id, product_name, quantity, price, total_price, image_url, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE cart_id = LAST_INSERT_ID(cart_id), quantity = quantity + VALUES(quantity), "
+            + "total_price = price * quantity";
+
+    private static final String UPDATE =
+            "UPDATE cart SET quantity = quantity + ?, total_price = price * (quantity + ?) WHERE user_id = ? AND product_id = ?";
+
+    private static final String INSERT =
+            "INSERT INTO cart (user_id, product_id, product_name, quantity, price, total_price, image_url, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String FIND_LINE = "SELECT cart_id FROM cart WHERE user_id = ? AND product_id = ?";
+
+    /**
+     * The line's ID and whether the add created it
+     */
+    public record Result(long cartId, boolean inserted) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean mysql;
+
+    public CartUpserter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Add quantity units of a product to the user's cart; a new line is priced at price,
+     * an existing line keeps its price
+     */
+    public Result upsert(Long userId, Long productId, String productName, Money price, String imageUrl,
+                         int quantity, LocalDateTime createdAt) {
+        if (isMysql()) {
+            return mysqlUpsert(userId, productId, productName, price, imageUrl, quantity, createdAt);
+        }
+        boolean inserted = false;
+        if (!addToExisting(userId, productId, quantity)) {
+            try {
+                jdbcTemplate.update(INSERT, userId, productId, productName, quantity, price.toBigDecimal(),
+                        price.times(quantity).toBigDecimal(), imageUrl, Timestamp.valueOf(createdAt));
+                inserted = true;
+            } catch (DuplicateKeyException e) {
+                // Another add inserted the line first
+                addToExisting(userId, productId, quantity);
+            }
+        }
+        Long cartId = jdbcTemplate.queryForObject(FIND_LINE, Long.class, userId, productId);
+        return new Result(cartId, inserted);
+    }
+
+    private Result mysqlUpsert(Long userId, Long productId, String productName, Money price, String imageUrl,
+                               int quantity, LocalDateTime createdAt) {
+        return jdbcTemplate.execute((ConnectionCallback<Result>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(MYSQL_UPSERT, Statement.RETURN_GENERATED_KEYS)) {
+                statement.setLong(1, userId);
+                statement.setLong(2, productId);
+                statement.setString(3, productName);
+                statement.setInt(4, quantity);
+                statement.setBigDecimal(5, price.toBigDecimal());
+                statement.setBigDecimal(6, price.times(quantity).toBigDecimal());
+                statement.setString(7, imageUrl);
+                statement.setTimestamp(8, Timestamp.valueOf(createdAt));
+                // MySQL reports 1 affected row for an insert and 2 for an update
+                int affected = statement.executeUpdate();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    if (!keys.next()) {
+                        throw new IllegalStateException("Cart upsert returned no ID");
+                    }
+                    return new Result(keys.getLong(1), affected == 1);
+                }
+            }
+        });
+    }
+
+    private boolean addToExisting(Long userId, Long productId, int quantity) {
+        return jdbcTemplate.update(UPDATE, quantity, quantity, userId, productId) > 0;
+    }
+
+    private boolean isMysql() {
+        Boolean result = mysql;
+        if (result == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            String name = product == null ? "" : product.toLowerCase(Locale.ROOT);
+            result = name.contains("mysql") || name.contains("mariadb");
+            mysql = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,33 @@
+package com.revshop.catalog;
+
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version of the product catalog, bumped after every committed product write.
+ * Used as a strong ETag for catalog endpoints: same tag, same catalog.
+ */
+@Component
+public class CatalogVersion {
+
+    // Distinguishes tags issued by different processes, so a restart never reuses one
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    public long increment() {
+        return version.incrementAndGet();
+    }
+
+    /**
+     * Quoted strong ETag for the current version
+     */
+    public String etag() {
+        return "\"catalog-" + instanceId + "-" + version.get() + "\"";
+    }
+}
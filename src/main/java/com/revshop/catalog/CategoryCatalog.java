@@ -0,0 +1,140 @@
+package com.revshop.catalog;
+
+import com.revshop.dto.CategoryCountDTO;
+import com.revshop.dto.ProductDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Categories actually used by products, with product counts.
+ * Categories are matched case-insensitively (like /category/{category}); the first
+ * spelling seen is the one shown. The sorted list is rebuilt lazily after a write,
+ * so reads between writes cost nothing.
+ */
+@Component
+public class CategoryCatalog implements ProductChangeListener {
+
+    private final Map<String, Category> categories = new HashMap<>();
+    // productId -> category key, to move counts when a product changes category
+    private final Map<Long, String> productCategories = new HashMap<>();
+    private volatile boolean ready;
+
+    // Null after a write until the next read rebuilds it
+    private volatile List<CategoryCountDTO> sorted;
+
+    /**
+     * True once the startup snapshot has been loaded
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Categories with at least one product, by name
+     */
+    public List<CategoryCountDTO> getCategoryCounts() {
+        List<CategoryCountDTO> result = sorted;
+        if (result != null) {
+            return result;
+        }
+        synchronized (this) {
+            if (sorted == null) {
+                List<CategoryCountDTO> counts = new ArrayList<>(categories.size());
+                for (Category category : categories.values()) {
+                    counts.add(new CategoryCountDTO(category.name, category.count));
+                }
+                counts.sort(Comparator.comparing(CategoryCountDTO::name, String.CASE_INSENSITIVE_ORDER));
+                sorted = List.copyOf(counts);
+            }
+            return sorted;
+        }
+    }
+
+    /**
+     * Merge raw [category, count] rows (e.g. from a GROUP BY) case-insensitively, by name
+     */
+    public static List<CategoryCountDTO> merge(List<Object[]> rows) {
+        Map<String, Category> merged = new HashMap<>();
+        for (Object[] row : rows) {
+            String name = (String) row[0];
+            if (name != null && !name.isBlank()) {
+                merged.computeIfAbsent(key(name), k -> new Category(name)).count += ((Number) row[1]).longValue();
+            }
+        }
+        return merged.values().stream()
+                .map(category -> new CategoryCountDTO(category.name, category.count))
+                .sorted(Comparator.comparing(CategoryCountDTO::name, String.CASE_INSENSITIVE_ORDER))
+                .toList();
+    }
+
+    @Override
+    public synchronized void onCatalogLoaded(List<ProductDTO> products) {
+        categories.clear();
+        productCategories.clear();
+        for (ProductDTO product : products) {
+            add(product);
+        }
+        sorted = null;
+        ready = true;
+    }
+
+    @Override
+    public synchronized void onProductSaved(ProductDTO product) {
+        String previous = productCategories.get(product.getId());
+        String current = product.getCategory() == null || product.getCategory().isBlank() ? null : key(product.getCategory());
+        if (previous != null && previous.equals(current)) {
+            return;
+        }
+        remove(product.getId());
+        add(product);
+        sorted = null;
+    }
+
+    @Override
+    public synchronized void onProductDeleted(Long productId) {
+        if (remove(productId)) {
+            sorted = null;
+        }
+    }
+
+    private void add(ProductDTO product) {
+        String name = product.getCategory();
+        if (name == null || name.isBlank()) {
+            return;
+        }
+        String key = key(name);
+        categories.computeIfAbsent(key, k -> new Category(name)).count++;
+        productCategories.put(product.getId(), key);
+    }
+
+    private boolean remove(Long productId) {
+        String key = productCategories.remove(productId);
+        if (key == null) {
+            return false;
+        }
+        Category category = categories.get(key);
+        if (category != null && --category.count <= 0) {
+            categories.remove(key);
+        }
+        return true;
+    }
+
+    private static String key(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Category {
+        final String name;
+        long count;
+
+        Category(String name) {
+            this.name = name;
+        }
+    }
+}
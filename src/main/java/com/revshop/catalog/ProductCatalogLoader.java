@@ -0,0 +1,40 @@
+package com.revshop.catalog;
+
+import com.revshop.dto.ProductDTO;
+import com.revshop.service.ProductService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Loads the product catalog once at startup and hands it to every {@link ProductChangeListener}
+ */
+@Component
+public class ProductCatalogLoader {
+
+    private final ProductService productService;
+    private final ProductChangePublisher publisher;
+
+    public ProductCatalogLoader(ProductService productService, ProductChangePublisher publisher) {
+        this.productService = productService;
+        this.publisher = publisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCatalog() {
+        publisher.beginLoad();
+        try {
+            long start = System.currentTimeMillis();
+            List<ProductDTO> products = productService.getCatalogSnapshot();
+            publisher.completeLoad(products);
+            System.out.println("✅ Product catalog loaded: " + products.size() + " products in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            System.err.println("❌ Error loading product catalog: " + e.getMessage());
+            e.printStackTrace();
+            publisher.abortLoad();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.revshop.catalog;
+
+import com.revshop.dto.ProductDTO;
+
+import java.util.List;
+
+/**
+ * Receives product catalog changes after they are committed.
+ * Implementations keep in-memory views of the catalog (indexes, caches, aggregates)
+ * up to date without querying the products table on every request.
+ *
+ * Events are upserts and deletes, so applying the same event twice must be harmless.
+ */
+public interface ProductChangeListener {
+
+    /**
+     * Replace the whole view with a fresh snapshot of the catalog (called once at startup)
+     */
+    void onCatalogLoaded(List<ProductDTO> products);
+
+    /**
+     * A product was created or updated
+     */
+    void onProductSaved(ProductDTO product);
+
+    /**
+     * A product was deleted
+     */
+    void onProductDeleted(Long productId);
+}
@@ -0,0 +1,112 @@
+package com.revshop.catalog;
+
+import com.revshop.dto.ProductDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fans product writes out to every {@link ProductChangeListener}.
+ * Events raised inside a transaction are delivered only after it commits,
+ * and events raised while the startup snapshot is loading are queued and replayed afterwards.
+ * The {@link CatalogVersion} is bumped only once every listener has applied the change.
+ */
+@Component
+public class ProductChangePublisher {
+
+    private final List<ProductChangeListener> listeners;
+    private final CatalogVersion catalogVersion;
+    private final Object lock = new Object();
+
+    // Non-null while the catalog snapshot is being loaded
+    private List<Consumer<ProductChangeListener>> pending;
+
+    public ProductChangePublisher(List<ProductChangeListener> listeners, CatalogVersion catalogVersion) {
+        this.listeners = listeners;
+        this.catalogVersion = catalogVersion;
+    }
+
+    public void productSaved(ProductDTO product) {
+        afterCommit(listener -> listener.onProductSaved(product));
+    }
+
+    public void productDeleted(Long productId) {
+        afterCommit(listener -> listener.onProductDeleted(productId));
+    }
+
+    /**
+     * Start queueing events until {@link #completeLoad(List)} hands the snapshot to the listeners
+     */
+    public void beginLoad() {
+        synchronized (lock) {
+            pending = new ArrayList<>();
+        }
+    }
+
+    public void completeLoad(List<ProductDTO> products) {
+        synchronized (lock) {
+            for (ProductChangeListener listener : listeners) {
+                deliver(listener, l -> l.onCatalogLoaded(products));
+            }
+            catalogVersion.increment();
+            replayPending();
+        }
+    }
+
+    /**
+     * Give up on the snapshot but still deliver whatever was queued
+     */
+    public void abortLoad() {
+        synchronized (lock) {
+            replayPending();
+        }
+    }
+
+    private void replayPending() {
+        List<Consumer<ProductChangeListener>> queued = pending;
+        pending = null;
+        if (queued != null) {
+            queued.forEach(this::dispatch);
+        }
+    }
+
+    private void afterCommit(Consumer<ProductChangeListener> event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(event);
+                }
+            });
+        } else {
+            dispatch(event);
+        }
+    }
+
+    private void dispatch(Consumer<ProductChangeListener> event) {
+        synchronized (lock) {
+            if (pending != null) {
+                pending.add(event);
+                return;
+            }
+            for (ProductChangeListener listener : listeners) {
+                deliver(listener, event);
+            }
+            catalogVersion.increment();
+        }
+    }
+
+    private void deliver(ProductChangeListener listener, Consumer<ProductChangeListener> event) {
+        try {
+            event.accept(listener);
+        } catch (Exception e) {
+            // One broken view must not stop the others from being updated
+            System.err.println("❌ Error in " + listener.getClass().getSimpleName() + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.revshop.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the id_pool rows used by @TableGenerator mappings ahead of existing IDs.
+ * Order items used to take IDs from AUTO_INCREMENT; a pool row created by Hibernate
+ * would start at 1 and collide with those rows, so on startup each pool is moved past the
+ * current maximum ID. Safe to run on every start and from several instances.
+ */
+@Component
+public class IdPoolInitializer {
+
+    /** Must match allocationSize of the @TableGenerator mappings */
+    public static final int ALLOCATION_SIZE = 50;
+
+    // pool name, table, ID column
+    private static final String[][] POOLS = {
+            {"order_items", "order_items", "order_item_id"}
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Depending on the EntityManagerFactory makes this run after Hibernate has created id_pool
+    public IdPoolInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignPools() {
+        for (String[] pool : POOLS) {
+            long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + pool[2] + "), 0) FROM " + pool[1], Long.class);
+            // A pooled generator hands out up to ALLOCATION_SIZE values below the stored one
+            long floor = maxId + ALLOCATION_SIZE + 1;
+            Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM id_pool WHERE pool_name = ?", Integer.class, pool[0]);
+            if (rows == 0) {
+                try {
+                    jdbcTemplate.update("INSERT INTO id_pool (pool_name, next_val) VALUES (?, ?)", pool[0], floor);
+                    continue;
+                } catch (DuplicateKeyException e) {
+                    // Another instance created the row first; fall through and raise it if needed
+                }
+            }
+            jdbcTemplate.update("UPDATE id_pool SET next_val = ? WHERE pool_name = ? AND next_val < ?", floor, pool[0], floor);
+        }
+    }
+}
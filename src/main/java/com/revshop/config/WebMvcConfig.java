@@ -0,0 +1,33 @@
+package com.revshop.config;
+
+import com.revshop.catalog.CatalogETagInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final CatalogETagInterceptor catalogETagInterceptor;
+
+    public WebMvcConfig(CatalogETagInterceptor catalogETagInterceptor) {
+        this.catalogETagInterceptor = catalogETagInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Read-only catalog endpoints polled by the storefront and seller dashboards
+        registry.addInterceptor(catalogETagInterceptor)
+                .addPathPatterns(
+                        "/api/products",
+                        "/api/products/all",
+                        "/api/products/page",
+                        "/api/products/filter",
+                        "/api/products/by-price",
+                        "/api/products/seller/**",
+                        "/api/products/category/**",
+                        "/api/products/categories",
+                        "/api/products/categories/counts"
+                );
+    }
+}
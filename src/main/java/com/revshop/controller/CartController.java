@@ -1,5 +1,8 @@
 package com.revshop.controller;
 
+import com.revshop.dto.CartBatchRequest;
+import com.revshop.dto.CartOperation;
+import com.revshop.dto.CartSummaryDTO;
 import com.revshop.model.Cart;
 import com.revshop.service.CartService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -67,21 +70,7 @@ public class CartController {
             List<Cart> cartItems = cartService.getCartByUserId(buyerId);
             
             // Convert Cart entities to response format
-            List<Map<String, Object>> response = cartItems.stream().map(cart -> {
-                Map<String, Object> item = new HashMap<>();
-                item.put("id", cart.getId());
-                item.put("cartItemId", cart.getId());
-                item.put("userId", cart.getUserId());
-                item.put("productId", cart.getProductId());
-                item.put("name", cart.getProductName());
-                item.put("productName", cart.getProductName());
-                item.put("price", cart.getPrice());
-                item.put("quantity", cart.getQuantity());
-                item.put("totalPrice", cart.getTotalPrice());
-                item.put("imageUrl", cart.getImageUrl());
-                item.put("productImage", cart.getImageUrl());
-                return item;
-            }).collect(Collectors.toList());
+            List<Map<String, Object>> response = cartItems.stream().map(this::toItem).collect(Collectors.toList());
             
             System.out.println("📦 Found " + response.size() + " cart items");
             return ResponseEntity.ok(response);
@@ -92,6 +81,36 @@ public class CartController {
         }
     }
 
+    // POST endpoint applying several add/update/remove operations to one cart at once
+    @PostMapping("/batch/{buyerId}")
+    public ResponseEntity<Map<String, Object>> applyBatch(@PathVariable Long buyerId, @RequestBody CartBatchRequest batchRequest) {
+        try {
+            List<CartOperation> operations = batchRequest.getOperations();
+            System.out.println("🛒 Applying " + (operations == null ? 0 : operations.size()) + " cart operations for buyer: " + buyerId);
+            
+            List<Cart> cartItems = cartService.applyBatch(buyerId, operations);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Cart updated successfully");
+            response.put("items", cartItems.stream().map(this::toItem).collect(Collectors.toList()));
+            response.put("summary", cartService.getCartSummary(buyerId));
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("❌ Error applying cart operations: " + e.getMessage());
+            e.printStackTrace();
+            
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Failed to update cart: " + e.getMessage());
+            
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+
     // PUT endpoint for updating cart item quantity
     @PutMapping("/{cartItemId}")
     public ResponseEntity<Map<String, Object>> updateCartItem(@PathVariable Long cartItemId, @RequestBody Map<String, Object> updateRequest) {
@@ -178,12 +197,12 @@ public class CartController {
     @GetMapping("/count/{buyerId}")
     public ResponseEntity<Map<String, Object>> getCartCount(@PathVariable Long buyerId) {
         try {
-            System.out.println("🛒 Getting cart count for buyer: " + buyerId);
-            
-            List<Cart> cartItems = cartService.getCartByUserId(buyerId);
+            CartSummaryDTO summary = cartService.getCartSummary(buyerId);
             
             Map<String, Object> response = new HashMap<>();
-            response.put("count", cartItems.size());
+            response.put("count", summary.lineCount());
+            response.put("units", summary.unitCount());
+            response.put("subtotal", summary.subtotal());
             response.put("buyerId", buyerId);
             
             return ResponseEntity.ok(response);
@@ -194,6 +213,18 @@ public class CartController {
         }
     }
 
+    // GET cart summary (line count, units, subtotal) for cart badges
+    @GetMapping("/summary/{buyerId}")
+    public ResponseEntity<CartSummaryDTO> getCartSummary(@PathVariable Long buyerId) {
+        try {
+            return ResponseEntity.ok(cartService.getCartSummary(buyerId));
+        } catch (Exception e) {
+            System.err.println("❌ Error getting cart summary: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(500).build();
+        }
+    }
+
     // WORKING cart endpoint without database dependencies
     @GetMapping("/working/{buyerId}")
     public ResponseEntity<List<String>> getWorkingCart(@PathVariable Long buyerId) {
@@ -221,4 +252,20 @@ public class CartController {
                     .body("Minimal test error: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    private Map<String, Object> toItem(Cart cart) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("id", cart.getId());
+        item.put("cartItemId", cart.getId());
+        item.put("userId", cart.getUserId());
+        item.put("productId", cart.getProductId());
+        item.put("name", cart.getProductName());
+        item.put("productName", cart.getProductName());
+        item.put("price", cart.getPrice());
+        item.put("quantity", cart.getQuantity());
+        item.put("totalPrice", cart.getTotalPrice());
+        item.put("imageUrl", cart.getImageUrl());
+        item.put("productImage", cart.getImageUrl());
+        return item;
+    }
+}
@@ -1,5 +1,11 @@
 package com.revshop.controller;
 
+import com.revshop.cache.ProductCache;
+import com.revshop.cart.CartStore;
+import com.revshop.inventory.FlashSaleStock;
+import com.revshop.inventory.LowStockTracker;
+import com.revshop.order.IdempotencyStore;
+import com.revshop.search.ProductSuggester;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -12,6 +18,24 @@ import java.util.Map;
 @CrossOrigin
 public class HealthController {
 
+    private final ProductCache productCache;
+    private final LowStockTracker lowStockTracker;
+    private final CartStore cartStore;
+    private final FlashSaleStock flashSaleStock;
+    private final IdempotencyStore idempotencyStore;
+    private final ProductSuggester productSuggester;
+
+    public HealthController(ProductCache productCache, LowStockTracker lowStockTracker, CartStore cartStore,
+                            FlashSaleStock flashSaleStock, IdempotencyStore idempotencyStore,
+                            ProductSuggester productSuggester) {
+        this.productCache = productCache;
+        this.lowStockTracker = lowStockTracker;
+        this.cartStore = cartStore;
+        this.flashSaleStock = flashSaleStock;
+        this.idempotencyStore = idempotencyStore;
+        this.productSuggester = productSuggester;
+    }
+
     @GetMapping("/ping")
     public ResponseEntity<Map<String, Object>> ping() {
         Map<String, Object> response = new HashMap<>();
@@ -21,6 +45,42 @@ public class HealthController {
         return ResponseEntity.ok(response);
     }
 
+    // Product cache hit/miss/eviction counters, used to size the cache
+    @GetMapping("/product-cache")
+    public ResponseEntity<Map<String, Object>> productCacheStats() {
+        return ResponseEntity.ok(productCache.getStats());
+    }
+
+    // Low-stock product count and how many products crossed the threshold either way
+    @GetMapping("/low-stock")
+    public ResponseEntity<Map<String, Object>> lowStockStats() {
+        return ResponseEntity.ok(lowStockTracker.getStats());
+    }
+
+    // Cart store mode, pending changes and flush counters
+    @GetMapping("/cart-store")
+    public ResponseEntity<Map<String, Object>> cartStoreStats() {
+        return ResponseEntity.ok(cartStore.getStats());
+    }
+
+    // Flash sales running and how their checkouts were served (one shard, several shards, rebalances)
+    @GetMapping("/flash-sale")
+    public ResponseEntity<Map<String, Object>> flashSaleStats() {
+        return ResponseEntity.ok(flashSaleStock.getStats());
+    }
+
+    // Idempotency-Key checkouts run, replayed and waited on
+    @GetMapping("/idempotency")
+    public ResponseEntity<Map<String, Object>> idempotencyStats() {
+        return ResponseEntity.ok(idempotencyStore.getStats());
+    }
+
+    // Cached typeahead prefixes and how often keystrokes were served from them
+    @GetMapping("/suggest")
+    public ResponseEntity<Map<String, Object>> suggestStats() {
+        return ResponseEntity.ok(productSuggester.getStats());
+    }
+
     @GetMapping("/test")
     public ResponseEntity<String> test() {
         return ResponseEntity.ok("Health controller working!");
@@ -4,10 +4,17 @@ import com.revshop.dto.OrderHistoryDTO;
 import com.revshop.dto.OrderDetailsDTO;
 import com.revshop.model.Order;
 import com.revshop.model.OrderItem;
+import com.revshop.order.IdempotencyKeyInUseException;
+import com.revshop.order.IdempotencyKeyMismatchException;
+import com.revshop.order.IdempotencyStore;
+import com.revshop.order.OutOfStockException;
+import com.revshop.service.CheckoutService;
 import com.revshop.service.OrderService;
+import com.revshop.dto.CartCheckoutRequest;
 import com.revshop.dto.CheckoutRequest;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 import java.util.List;
@@ -20,15 +27,24 @@ import java.util.Map;
 public class OrderController {
 
     private final OrderService orderService;
+    private final CheckoutService checkoutService;
+    private final IdempotencyStore idempotencyStore;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, CheckoutService checkoutService, IdempotencyStore idempotencyStore) {
         this.orderService = orderService;
+        this.checkoutService = checkoutService;
+        this.idempotencyStore = idempotencyStore;
     }
 
-    // POST checkout/create order
+    // POST checkout/create order; a retry with the same Idempotency-Key gets the original order back
     @PostMapping("/checkout")
-    public ResponseEntity<?> checkout(@RequestBody CheckoutRequest request) {
+    public ResponseEntity<?> checkout(@RequestBody CheckoutRequest request,
+                                      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
+            if (!validIdempotencyKey(idempotencyKey)) {
+                return invalidIdempotencyKey();
+            }
+
             // Validate buyer ID
             if (request.getBuyerId() == null) {
                 return ResponseEntity.badRequest().body(Map.of(
@@ -38,7 +54,7 @@ public class OrderController {
             }
 
             // Validate total amount
-            if (request.getTotalAmount() <= 0) {
+            if (request.getTotalAmount() == null || !request.getTotalAmount().isPositive()) {
                 return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
                     "message", "Invalid total amount. Please add items to your cart and try again."
@@ -99,21 +115,26 @@ public class OrderController {
             System.out.println("  - Country: " + request.getShippingAddress().getCountry());
             System.out.println("  - Phone: " + request.getShippingAddress().getPhone());
             
+            if (idempotencyKey != null) {
+                IdempotencyStore.Result result = idempotencyStore.execute(idempotencyKey, request.getBuyerId(), request,
+                        () -> orderService.placeOrder(order, request.getItems()));
+                return idempotentResponse(idempotencyKey, result);
+            }
+
             System.out.println("💾 Saving order to database...");
             Order savedOrder = orderService.placeOrder(order, request.getItems());
             
-            // Generate proper order number after ID is assigned
-            String orderNumber = "ORD-" + savedOrder.getId();
-            savedOrder.setOrderNumber(orderNumber);
-            
-            // Save again to update order number
-            orderService.updateOrder(savedOrder);
-            
             System.out.println("✅ Order placed successfully with ID: " + savedOrder.getId());
             System.out.println("✅ Order Number: " + savedOrder.getOrderNumber());
             System.out.println("✅ Order saved with Buyer ID: " + savedOrder.getBuyerId());
             
             return ResponseEntity.ok(savedOrder);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (IdempotencyKeyInUseException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("success", false, "message", e.getMessage()));
+        } catch (IdempotencyKeyMismatchException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of("success", false, "message", e.getMessage()));
         } catch (Exception e) {
             System.err.println("❌ Error during checkout: " + e.getMessage());
             e.printStackTrace();
@@ -121,6 +142,78 @@ public class OrderController {
         }
     }
 
+    // POST checkout of the buyer's stored cart: server-side prices, stock reserved atomically;
+    // a retry with the same Idempotency-Key gets the original order back
+    @PostMapping("/checkout/cart")
+    public ResponseEntity<?> checkoutCart(@RequestBody CartCheckoutRequest request,
+                                          @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (!validIdempotencyKey(idempotencyKey)) {
+            return invalidIdempotencyKey();
+        }
+        if (request.getBuyerId() == null) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Buyer ID is required. Please login and try again."
+            ));
+        }
+        if (request.getShippingAddress() == null) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Shipping address is required. Please provide shipping details and try again."
+            ));
+        }
+
+        try {
+            System.out.println("🛒 === CART CHECKOUT REQUEST === Buyer ID: " + request.getBuyerId());
+            if (idempotencyKey != null) {
+                // The cart checkout retries in fresh transactions, so the key is saved inside the one that places the order
+                IdempotencyStore.Result result = idempotencyStore.executeOwnTransaction(idempotencyKey, request.getBuyerId(), request,
+                        save -> checkoutService.checkoutCart(request.getBuyerId(), request.getShippingAddress(), save::accept));
+                return idempotentResponse(idempotencyKey, result);
+            }
+            Order savedOrder = checkoutService.checkoutCart(request.getBuyerId(), request.getShippingAddress());
+            System.out.println("✅ Order " + savedOrder.getOrderNumber() + " placed, total " + savedOrder.getTotalAmount());
+            return ResponseEntity.ok(savedOrder);
+        } catch (OutOfStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "success", false,
+                "message", e.getMessage(),
+                "productIds", e.getProductIds()
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (IdempotencyKeyInUseException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("success", false, "message", e.getMessage()));
+        } catch (IdempotencyKeyMismatchException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("❌ Error during cart checkout: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private static boolean validIdempotencyKey(String idempotencyKey) {
+        return idempotencyKey == null || (!idempotencyKey.isBlank() && idempotencyKey.length() <= IdempotencyStore.MAX_KEY_LENGTH);
+    }
+
+    private static ResponseEntity<?> invalidIdempotencyKey() {
+        return ResponseEntity.badRequest().body(Map.of(
+            "success", false,
+            "message", "Idempotency-Key must be 1 to " + IdempotencyStore.MAX_KEY_LENGTH + " characters."
+        ));
+    }
+
+    private static ResponseEntity<?> idempotentResponse(String idempotencyKey, IdempotencyStore.Result result) {
+        System.out.println(result.replayed()
+                ? "🔁 Replayed order for Idempotency-Key " + idempotencyKey
+                : "✅ Order placed for Idempotency-Key " + idempotencyKey);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                .body(result.response());
+    }
+
     // GET order details - CLEAN DTO IMPLEMENTATION
     @GetMapping("/{orderId}")
     public ResponseEntity<?> getOrderDetails(@PathVariable Long orderId) {
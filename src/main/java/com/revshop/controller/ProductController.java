@@ -1,22 +1,42 @@
 package com.revshop.controller;
 
+import com.revshop.dto.CategoryCountDTO;
 import com.revshop.dto.ProductDTO;
+import com.revshop.dto.ProductFacetResultDTO;
+import com.revshop.dto.ProductPageDTO;
+import com.revshop.dto.ProductSuggestionDTO;
+import com.revshop.dto.SellerSummaryDTO;
 import com.revshop.model.Product;
+import com.revshop.search.PriceBand;
+import com.revshop.search.ProductFacetQuery;
+import com.revshop.dto.ProductImportResult;
+import com.revshop.service.ProductExportService;
+import com.revshop.service.ProductImportService;
 import com.revshop.service.ProductService;
+import com.revshop.util.ProductValidator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/products")
@@ -24,47 +44,99 @@ import java.util.Optional;
 @Tag(name = "Product Management", description = "APIs for managing products in the RevShop e-commerce platform")
 public class ProductController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final ProductService productService;
+    private final ProductExportService productExportService;
+    private final ProductImportService productImportService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductExportService productExportService,
+                             ProductImportService productImportService) {
         this.productService = productService;
+        this.productExportService = productExportService;
+        this.productImportService = productImportService;
     }
 
     // GET all products (public endpoint - no authentication required)
     @GetMapping("/all")
     @Operation(summary = "Get all products (Public)", 
-               description = "Retrieve all available products without authentication. This is a public endpoint for browsing products.")
+               description = "Retrieve all available products without authentication. This is a public endpoint for browsing products. "
+                       + "The array is streamed; prefer /page for browsing large catalogs.")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Successfully retrieved all products"),
-        @ApiResponse(responseCode = "500", description = "Internal server error")
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved all products")
     })
-    public ResponseEntity<List<ProductDTO>> getAllProductsPublic() {
-        try {
-            System.out.println("🛍️ Public access: Fetching all products (no authentication required)");
-            List<ProductDTO> products = productService.getAllProducts();
-            System.out.println("📦 Retrieved " + products.size() + " products for public viewing");
-            return ResponseEntity.ok(products);
-        } catch (Exception e) {
-            System.err.println("❌ Error getting all products (public): " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    public ResponseEntity<StreamingResponseBody> getAllProductsPublic() {
+        System.out.println("🛍️ Public access: Fetching all products (no authentication required)");
+        return streamAllProducts();
     }
 
     // GET all products
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
+    public ResponseEntity<StreamingResponseBody> getAllProducts() {
+        return streamAllProducts();
+    }
+
+    /**
+     * The whole catalog as the JSON array these endpoints always returned, streamed from the
+     * database cursor so heap use does not grow with the catalog
+     */
+    private ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        StreamingResponseBody body = out -> {
+            long count = productExportService.writeProductArray(out);
+            System.out.println("📦 Retrieved " + count + " products");
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // GET one page of products (keyset pagination)
+    @GetMapping("/page")
+    @Operation(summary = "Get products page by page",
+               description = "Retrieve products in ID order, at most 200 per page. Pass the returned nextCursor to get the following page.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved the page"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getProductsPage(@RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int size) {
         try {
-            List<ProductDTO> products = productService.getAllProducts();
-            System.out.println("📦 Retrieved " + products.size() + " products");
-            return ResponseEntity.ok(products);
+            ProductPageDTO page = productService.getProductsPage(cursor, size);
+            System.out.println("📦 Retrieved page of " + page.getSize() + " products");
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
         } catch (Exception e) {
-            System.err.println("❌ Error getting all products: " + e.getMessage());
+            System.err.println("❌ Error getting products page: " + e.getMessage());
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    // GET full catalog export, streamed as NDJSON
+    @GetMapping("/export")
+    @Operation(summary = "Export the full catalog",
+               description = "Stream every product as newline-delimited JSON (one product per line). Suitable for multi-million row exports.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export stream started")
+    })
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        System.out.println("📤 Streaming catalog export");
+        StreamingResponseBody body = out -> {
+            long start = System.currentTimeMillis();
+            long count = productExportService.exportProducts(out);
+            System.out.println("✅ Exported " + count + " products in " + (System.currentTimeMillis() - start) + " ms");
+        };
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.ndjson\"")
+                .body(body);
+    }
+
     // GET product by ID
     @GetMapping("/{productId}")
     public ResponseEntity<ProductDTO> getProductById(@PathVariable Long productId) {
@@ -112,100 +184,11 @@ public class ProductController {
     })
     public ResponseEntity<?> addProduct(@RequestBody Product product) {
         try {
-            // Validate product name
-            if (product.getName() == null || product.getName().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Product name is required. Please enter a descriptive name for your product."
-                ));
-            }
-
-            if (product.getName().trim().length() < 2) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Product name must be at least 2 characters long."
-                ));
-            }
-
-            if (product.getName().trim().length() > 100) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Product name is too long. Maximum 100 characters allowed."
-                ));
-            }
-
-            // Validate description
-            if (product.getDescription() == null || product.getDescription().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Product description is required. Please describe your product to help customers understand what you're selling."
-                ));
-            }
-
-            if (product.getDescription().trim().length() > 1000) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Product description is too long. Maximum 1000 characters allowed."
-                ));
-            }
-
-            // Validate price
-            if (product.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Product price must be greater than 0. Please set a valid selling price."
-                ));
-            }
-
-            if (product.getPrice().compareTo(new BigDecimal("1000000")) > 0) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Product price is too high. Maximum price is ₹1,000,000."
-                ));
-            }
-
-            // Validate stock
-            if (product.getStock() < 0) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Stock quantity cannot be negative. Please enter a valid stock number."
-                ));
-            }
-
-            if (product.getStock() > 10000) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Stock quantity is too high. Maximum allowed is 10,000 items."
-                ));
-            }
-
-            // Validate low stock threshold if provided
-            if (product.getLowStockThreshold() != null && product.getLowStockThreshold() < 0) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Low stock threshold cannot be negative. Please enter a valid number or leave it empty to use default (5)."
-                ));
-            }
-
-            if (product.getLowStockThreshold() != null && product.getLowStockThreshold() > 1000) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Low stock threshold is too high. Maximum allowed is 1,000 items."
-                ));
-            }
-
-            // Validate category
-            if (product.getCategory() == null || product.getCategory().trim().isEmpty()) {
+            String validationError = ProductValidator.validate(product);
+            if (validationError != null) {
                 return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
-                    "message", "Product category is required. Please select a category for your product."
-                ));
-            }
-
-            if (product.getCategory().trim().length() > 50) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Category name is too long. Maximum 50 characters allowed."
+                    "message", validationError
                 ));
             }
 
@@ -265,6 +248,62 @@ public class ProductController {
         }
     }
 
+    // POST bulk import products (JSON array)
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Bulk import products (JSON)",
+               description = "Import up to 100,000 products for one seller. Every product is validated with the same rules as adding a single product; invalid rows are reported and skipped.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import finished; see failed and errors for rejected rows"),
+        @ApiResponse(responseCode = "400", description = "Invalid seller or too many rows"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> importProducts(@RequestParam Long sellerId, @RequestBody List<Product> products) {
+        System.out.println("📥 Importing " + products.size() + " products for seller " + sellerId);
+        return runImport(sellerId, () -> productImportService.importProducts(sellerId, products));
+    }
+
+    // POST bulk import products (CSV with header row)
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @Operation(summary = "Bulk import products (CSV)",
+               description = "Import products from CSV. The first line is a header with columns name, description, price, stock, category, imageUrl, lowStockThreshold.")
+    public ResponseEntity<?> importProductsCsv(@RequestParam Long sellerId, InputStream body) {
+        System.out.println("📥 Importing products from CSV for seller " + sellerId);
+        return runImport(sellerId, () -> productImportService.importCsv(sellerId,
+                new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))));
+    }
+
+    private ResponseEntity<?> runImport(Long sellerId, ImportCall importCall) {
+        if (sellerId == null || sellerId <= 0) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Invalid seller ID. Please login again and try adding the product."
+            ));
+        }
+        try {
+            ProductImportResult result = importCall.run();
+            System.out.println("✅ Imported " + result.getImported() + " products (" + result.getFailed()
+                    + " failed) in " + result.getDurationMs() + " ms");
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            System.err.println("❌ Error importing products: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                "success", false,
+                "message", "Failed to import products: " + e.getMessage()
+            ));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ImportCall {
+        ProductImportResult run() throws Exception;
+    }
+
     // PUT update product
     @PutMapping("/{productId}")
     public ResponseEntity<ProductDTO> updateProduct(@PathVariable Long productId, @RequestBody Product product) {
@@ -340,16 +379,78 @@ public class ProductController {
         }
     }
 
+    // GET a seller's inventory totals for the dashboard
+    @GetMapping("/seller/{sellerId}/summary")
+    @Operation(summary = "Get a seller's inventory summary",
+               description = "Product count, units in stock, inventory value, low-stock count and out-of-stock count")
+    public ResponseEntity<SellerSummaryDTO> getSellerSummary(@PathVariable Long sellerId) {
+        try {
+            return ResponseEntity.ok(productService.getSellerSummary(sellerId));
+        } catch (Exception e) {
+            System.err.println("❌ Error getting seller summary: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // POST start a flash sale: split the product's stock into shards for concurrent checkouts
+    @PostMapping("/{productId}/flash-sale")
+    @Operation(summary = "Start a flash sale for a product",
+               description = "Splits the product's stock into shards so concurrent checkouts of it do not queue on one row")
+    public ResponseEntity<Map<String, Object>> startFlashSale(@PathVariable Long productId,
+                                                              @RequestParam(defaultValue = "8") int shards) {
+        try {
+            productService.startFlashSale(productId, shards);
+            return ResponseEntity.ok(Map.of("success", true, "productId", productId, "shards", shards));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("❌ Error starting flash sale: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // DELETE end a flash sale and fold the remaining shard stock back into the product
+    @DeleteMapping("/{productId}/flash-sale")
+    @Operation(summary = "End a product's flash sale",
+               description = "Moves the stock left in the shards back to the product")
+    public ResponseEntity<Map<String, Object>> endFlashSale(@PathVariable Long productId) {
+        try {
+            int stock = productService.endFlashSale(productId);
+            return ResponseEntity.ok(Map.of("success", true, "productId", productId, "stock", stock));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("❌ Error ending flash sale: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // GET a seller's products at or below their low-stock threshold
+    @GetMapping("/seller/{sellerId}/low-stock")
+    @Operation(summary = "Get low-stock products for a seller",
+               description = "Products whose stock is at or below their low-stock threshold, in product ID order")
+    public ResponseEntity<List<ProductDTO>> getLowStockProducts(@PathVariable Long sellerId) {
+        try {
+            List<ProductDTO> lowStock = productService.getLowStockProducts(sellerId);
+            System.out.println("📉 Seller " + sellerId + " has " + lowStock.size() + " low-stock products");
+            return ResponseEntity.ok(lowStock);
+        } catch (Exception e) {
+            System.err.println("❌ Error getting low-stock products: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // GET products by category
     @GetMapping("/category/{category}")
     public ResponseEntity<List<ProductDTO>> getProductsByCategory(@PathVariable String category) {
         try {
             System.out.println("🔍 Getting products for category: " + category);
             
-            List<ProductDTO> allProducts = productService.getAllProducts();
-            List<ProductDTO> categoryProducts = allProducts.stream()
-                .filter(product -> product.getCategory() != null && product.getCategory().equalsIgnoreCase(category))
-                .collect(java.util.stream.Collectors.toList());
+            List<ProductDTO> categoryProducts = productService.getProductsByCategory(category);
             
             System.out.println("📦 Found " + categoryProducts.size() + " products in category " + category);
             
@@ -361,20 +462,108 @@ public class ProductController {
         }
     }
 
+    // GET products by combined facet filters, with facet counts
+    @GetMapping("/filter")
+    @Operation(summary = "Filter products by facets",
+               description = "Combine category, price band (e.g. 50-100, 1000+), seller and stock filters. "
+                       + "Repeated values of one filter are ORed, different filters are ANDed. Facet counts are returned with the page.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully filtered products"),
+        @ApiResponse(responseCode = "400", description = "Invalid filter"),
+        @ApiResponse(responseCode = "503", description = "Catalog is still loading")
+    })
+    public ResponseEntity<?> filterProducts(@RequestParam(required = false) List<String> category,
+                                            @RequestParam(required = false) List<String> priceBand,
+                                            @RequestParam(required = false) List<Long> sellerId,
+                                            @RequestParam(required = false) Boolean inStock,
+                                            @RequestParam(defaultValue = "0") int offset,
+                                            @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            Set<PriceBand> bands = new HashSet<>();
+            if (priceBand != null) {
+                priceBand.forEach(band -> bands.add(PriceBand.fromLabel(band)));
+            }
+            ProductFacetQuery query = new ProductFacetQuery(
+                    category == null ? Set.of() : new HashSet<>(category),
+                    bands,
+                    sellerId == null ? Set.of() : new HashSet<>(sellerId),
+                    inStock,
+                    offset,
+                    Math.min(limit, ProductService.MAX_PAGE_SIZE));
+
+            ProductFacetResultDTO result = productService.filterProducts(query);
+            System.out.println("📦 Facet filter matched " + result.getTotal() + " products");
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            System.err.println("❌ Error filtering products: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // GET products in a price range, sorted by price
+    @GetMapping("/by-price")
+    @Operation(summary = "Get products by price",
+               description = "Products priced between minPrice and maxPrice (both optional), cheapest first or, with order=desc, most expensive first. "
+                       + "Can be narrowed by category, seller and stock.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved products"),
+        @ApiResponse(responseCode = "400", description = "Invalid range or order"),
+        @ApiResponse(responseCode = "503", description = "Catalog is still loading")
+    })
+    public ResponseEntity<?> getProductsByPrice(@RequestParam(required = false) BigDecimal minPrice,
+                                                @RequestParam(required = false) BigDecimal maxPrice,
+                                                @RequestParam(required = false) String category,
+                                                @RequestParam(required = false) Long sellerId,
+                                                @RequestParam(defaultValue = "false") boolean inStock,
+                                                @RequestParam(defaultValue = "asc") String order,
+                                                @RequestParam(defaultValue = "0") int offset,
+                                                @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            if (!order.equalsIgnoreCase("asc") && !order.equalsIgnoreCase("desc")) {
+                throw new IllegalArgumentException("Order must be asc or desc");
+            }
+            List<ProductDTO> products = productService.getProductsByPrice(minPrice, maxPrice, category, sellerId,
+                    inStock, order.equalsIgnoreCase("desc"), offset, limit);
+            System.out.println("📦 Found " + products.size() + " products by price");
+            return ResponseEntity.ok(products);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            System.err.println("❌ Error getting products by price: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // GET product search
     @GetMapping("/search")
-    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam String query) {
+    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam String query,
+                                                           @RequestParam(defaultValue = "100") int limit,
+                                                           @RequestParam(defaultValue = "false") boolean fuzzy) {
         try {
-            System.out.println("🔍 Searching products with query: " + query);
-            
-            List<ProductDTO> allProducts = productService.getAllProducts();
-            List<ProductDTO> searchResults = allProducts.stream()
-                .filter(product -> 
-                    (product.getName() != null && product.getName().toLowerCase().contains(query.toLowerCase())) ||
-                    (product.getDescription() != null && product.getDescription().toLowerCase().contains(query.toLowerCase()))
-                )
-                .collect(java.util.stream.Collectors.toList());
-            
+            System.out.println("🔍 Searching products with query: " + query + (fuzzy ? " (fuzzy)" : ""));
+
+            List<ProductDTO> searchResults = productService.searchProducts(query, Math.max(1, Math.min(limit, 1000)), fuzzy);
+
             System.out.println("📦 Found " + searchResults.size() + " products matching query: " + query);
             
             return ResponseEntity.ok(searchResults);
@@ -385,20 +574,31 @@ public class ProductController {
         }
     }
 
-    // GET product categories
+    // GET typeahead suggestions (called on every keystroke, so no per-request logging)
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest products and categories",
+               description = "Product names and categories starting with the prefix, most popular first")
+    public ResponseEntity<List<ProductSuggestionDTO>> suggestProducts(@RequestParam String prefix,
+                                                                      @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(productService.suggest(prefix, limit));
+        } catch (Exception e) {
+            System.err.println("❌ Error suggesting products: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // GET product categories (derived from the products themselves)
     @GetMapping("/categories")
     public ResponseEntity<List<String>> getProductCategories() {
         try {
             System.out.println("🔍 Getting product categories");
-            
+
             List<String> categories = new ArrayList<>();
-            categories.add("Electronics");
-            categories.add("Clothing");
-            categories.add("Books");
-            categories.add("Home & Garden");
-            categories.add("Sports");
-            categories.add("Toys");
-            
+            for (CategoryCountDTO category : productService.getCategoryCounts()) {
+                categories.add(category.name());
+            }
+
             return ResponseEntity.ok(categories);
         } catch (Exception e) {
             System.err.println("❌ Error getting product categories: " + e.getMessage());
@@ -407,6 +607,20 @@ public class ProductController {
         }
     }
 
+    // GET product categories with the number of products in each
+    @GetMapping("/categories/counts")
+    @Operation(summary = "Get categories with product counts",
+               description = "Every category used by at least one product, by name, with its product count")
+    public ResponseEntity<List<CategoryCountDTO>> getCategoryCounts() {
+        try {
+            return ResponseEntity.ok(productService.getCategoryCounts());
+        } catch (Exception e) {
+            System.err.println("❌ Error getting category counts: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // Simple test endpoint - no dependencies
     @GetMapping("/ping")
     public ResponseEntity<Map<String, Object>> ping() {
@@ -0,0 +1,10 @@
+package com.revshop.dto;
+
+import java.util.List;
+
+public class CartBatchRequest {
+    private List<CartOperation> operations;
+
+    public List<CartOperation> getOperations() { return operations; }
+    public void setOperations(List<CartOperation> operations) { this.operations = operations; }
+}
@@ -0,0 +1,15 @@
+package com.revshop.dto;
+
+/**
+ * Checkout of the buyer's stored cart: items, prices and total are taken from the server
+ */
+public class CartCheckoutRequest {
+    private Long buyerId;
+    private ShippingAddress shippingAddress;
+
+    public Long getBuyerId() { return buyerId; }
+    public void setBuyerId(Long buyerId) { this.buyerId = buyerId; }
+
+    public ShippingAddress getShippingAddress() { return shippingAddress; }
+    public void setShippingAddress(ShippingAddress shippingAddress) { this.shippingAddress = shippingAddress; }
+}
@@ -0,0 +1,25 @@
+package com.revshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+/**
+ * One change in a batch cart request:
+ * add (productId, quantity), update (cartItemId, quantity) or remove (cartItemId)
+ */
+public record CartOperation(@JsonFormat(with = JsonFormat.Feature.ACCEPT_CASE_INSENSITIVE_VALUES) Type op,
+                            Long productId, Long cartItemId, Integer quantity) {
+
+    public enum Type { ADD, UPDATE, REMOVE }
+
+    public static CartOperation add(Long productId, int quantity) {
+        return new CartOperation(Type.ADD, productId, null, quantity);
+    }
+
+    public static CartOperation update(Long cartItemId, int quantity) {
+        return new CartOperation(Type.UPDATE, null, cartItemId, quantity);
+    }
+
+    public static CartOperation remove(Long cartItemId) {
+        return new CartOperation(Type.REMOVE, null, cartItemId, null);
+    }
+}
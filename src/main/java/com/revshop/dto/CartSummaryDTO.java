@@ -0,0 +1,13 @@
+package com.revshop.dto;
+
+import com.revshop.money.Money;
+
+/**
+ * Cart badge figures: number of lines, total units and subtotal
+ */
+public record CartSummaryDTO(Long userId, int lineCount, long unitCount, Money subtotal) {
+
+    public static CartSummaryDTO empty(Long userId) {
+        return new CartSummaryDTO(userId, 0, 0, Money.ZERO);
+    }
+}
@@ -0,0 +1,6 @@
+package com.revshop.dto;
+
+/**
+ * A category name as shown in the storefront menu and the number of products in it
+ */
+public record CategoryCountDTO(String name, long count) {}
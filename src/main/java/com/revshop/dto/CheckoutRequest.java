@@ -1,19 +1,20 @@
 package com.revshop.dto;
 
 import com.revshop.model.OrderItem;
+import com.revshop.money.Money;
 import java.util.List;
 
 public class CheckoutRequest {
     private Long buyerId;
-    private double totalAmount;
+    private Money totalAmount;
     private List<OrderItem> items;
     private ShippingAddress shippingAddress;
 
     public Long getBuyerId() { return buyerId; }
     public void setBuyerId(Long buyerId) { this.buyerId = buyerId; }
 
-    public double getTotalAmount() { return totalAmount; }
-    public void setTotalAmount(double totalAmount) { this.totalAmount = totalAmount; }
+    public Money getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(Money totalAmount) { this.totalAmount = totalAmount; }
 
     public List<OrderItem> getItems() { return items; }
     public void setItems(List<OrderItem> items) { this.items = items; }
@@ -1,12 +1,14 @@
 package com.revshop.dto;
 
+import com.revshop.money.Money;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
 public class OrderDetailsDTO {
     private Long id;
     private Long buyerId;
-    private double totalAmount;
+    private Money totalAmount;
     private String status;
     private LocalDateTime orderDate;
     private String orderNumber;
@@ -22,7 +24,7 @@ public class OrderDetailsDTO {
 
     private List<OrderItemDTO> items;
 
-    public OrderDetailsDTO(Long id, Long buyerId, double totalAmount, String status, LocalDateTime orderDate, String orderNumber,
+    public OrderDetailsDTO(Long id, Long buyerId, Money totalAmount, String status, LocalDateTime orderDate, String orderNumber,
                        String shippingFullName, String shippingAddress, String shippingCity, String shippingState, 
                        String shippingZipCode, String shippingCountry, String shippingPhone, List<OrderItemDTO> items) {
         this.id = id;
@@ -49,7 +51,7 @@ public class OrderDetailsDTO {
         return buyerId;
     }
 
-    public double getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
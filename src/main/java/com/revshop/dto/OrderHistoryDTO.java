@@ -1,16 +1,18 @@
 package com.revshop.dto;
 
+import com.revshop.money.Money;
+
 import java.time.LocalDateTime;
 
 public class OrderHistoryDTO {
     private Long id;
     private Long buyerId;
-    private Double totalAmount;
+    private Money totalAmount;
     private String status;
     private LocalDateTime orderDate;
     private String orderNumber;
 
-    public OrderHistoryDTO(Long id, Long buyerId, Double totalAmount, String status, LocalDateTime orderDate, String orderNumber) {
+    public OrderHistoryDTO(Long id, Long buyerId, Money totalAmount, String status, LocalDateTime orderDate, String orderNumber) {
         this.id = id;
         this.buyerId = buyerId;
         this.totalAmount = totalAmount;
@@ -27,7 +29,7 @@ public class OrderHistoryDTO {
         return buyerId;
     }
 
-    public Double getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
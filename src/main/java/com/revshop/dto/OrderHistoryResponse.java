@@ -2,13 +2,14 @@ package com.revshop.dto;
 
 import com.revshop.model.Order;
 import com.revshop.model.OrderItem;
+import com.revshop.money.Money;
 import java.time.LocalDateTime;
 import java.util.List;
 
 public class OrderHistoryResponse {
     private Long id;
     private Long buyerId;
-    private Double totalAmount;
+    private Money totalAmount;
     private String status;
     private LocalDateTime orderDate;
     private List<OrderItem> orderItems;
@@ -25,7 +26,7 @@ public class OrderHistoryResponse {
     // Getters
     public Long getId() { return id; }
     public Long getBuyerId() { return buyerId; }
-    public Double getTotalAmount() { return totalAmount; }
+    public Money getTotalAmount() { return totalAmount; }
     public String getStatus() { return status; }
     public LocalDateTime getOrderDate() { return orderDate; }
     public List<OrderItem> getOrderItems() { return orderItems; }
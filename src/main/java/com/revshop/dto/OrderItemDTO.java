@@ -1,14 +1,16 @@
 package com.revshop.dto;
 
+import com.revshop.money.Money;
+
 public class OrderItemDTO {
     private Long id;
     private Long productId;
     private String productName;
     private String imageUrl;
     private int quantity;
-    private double price;
+    private Money price;
 
-    public OrderItemDTO(Long id, Long productId, String productName, String imageUrl, int quantity, double price) {
+    public OrderItemDTO(Long id, Long productId, String productName, String imageUrl, int quantity, Money price) {
         this.id = id;
         this.productId = productId;
         this.productName = productName;
@@ -37,7 +39,7 @@ public class OrderItemDTO {
         return quantity;
     }
 
-    public double getPrice() {
+    public Money getPrice() {
         return price;
     }
 }
@@ -0,0 +1,31 @@
+package com.revshop.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of products matching a facet filter, plus the count of matches per facet value.
+ * A facet's counts ignore that facet's own filter, so they show what selecting another value would return.
+ */
+public class ProductFacetResultDTO {
+    private List<ProductDTO> items;
+    private int total;
+    private Map<String, Map<String, Integer>> facets;
+
+    public ProductFacetResultDTO() {}
+
+    public ProductFacetResultDTO(List<ProductDTO> items, int total, Map<String, Map<String, Integer>> facets) {
+        this.items = items;
+        this.total = total;
+        this.facets = facets;
+    }
+
+    public List<ProductDTO> getItems() { return items; }
+    public void setItems(List<ProductDTO> items) { this.items = items; }
+
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+
+    public Map<String, Map<String, Integer>> getFacets() { return facets; }
+    public void setFacets(Map<String, Map<String, Integer>> facets) { this.facets = facets; }
+}
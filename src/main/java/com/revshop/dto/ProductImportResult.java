@@ -0,0 +1,51 @@
+package com.revshop.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import
+ * Rows are numbered from 1 in the order they were submitted (CSV header excluded)
+ */
+public class ProductImportResult {
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private int received;
+    private int imported;
+    private int failed;
+    private long durationMs;
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    public void addError(int row, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(row, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public boolean isSuccess() { return failed == 0; }
+
+    public int getReceived() { return received; }
+    public void setReceived(int received) { this.received = received; }
+
+    public int getImported() { return imported; }
+    public void setImported(int imported) { this.imported = imported; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+
+    public record RowError(int row, String message) {}
+}
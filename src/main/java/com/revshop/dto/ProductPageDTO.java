@@ -0,0 +1,35 @@
+package com.revshop.dto;
+
+import java.util.List;
+
+/**
+ * One page of the product catalog
+ * nextCursor is an opaque token for the following page, or null on the last page
+ */
+public class ProductPageDTO {
+    private List<ProductDTO> items;
+    private String nextCursor;
+    private int size;
+    private boolean hasMore;
+
+    public ProductPageDTO() {}
+
+    public ProductPageDTO(List<ProductDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.size = items.size();
+        this.hasMore = nextCursor != null;
+    }
+
+    public List<ProductDTO> getItems() { return items; }
+    public void setItems(List<ProductDTO> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
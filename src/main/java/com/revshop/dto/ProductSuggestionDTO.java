@@ -0,0 +1,9 @@
+package com.revshop.dto;
+
+/**
+ * One autocomplete suggestion
+ * type is "PRODUCT" for a product name or "CATEGORY" for a category;
+ * popularity is units sold across the products behind the suggestion
+ */
+public record ProductSuggestionDTO(String text, String type, long popularity, int productCount) {
+}
@@ -0,0 +1,46 @@
+package com.revshop.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Inventory totals for a seller's dashboard
+ * inventoryValue is the sum of price x stock over the seller's products
+ */
+public class SellerSummaryDTO {
+    private Long sellerId;
+    private long productCount;
+    private long unitsInStock;
+    private BigDecimal inventoryValue;
+    private long lowStockCount;
+    private long outOfStockCount;
+
+    public SellerSummaryDTO() {}
+
+    public SellerSummaryDTO(Long sellerId, long productCount, long unitsInStock, BigDecimal inventoryValue,
+                            long lowStockCount, long outOfStockCount) {
+        this.sellerId = sellerId;
+        this.productCount = productCount;
+        this.unitsInStock = unitsInStock;
+        this.inventoryValue = inventoryValue;
+        this.lowStockCount = lowStockCount;
+        this.outOfStockCount = outOfStockCount;
+    }
+
+    public Long getSellerId() { return sellerId; }
+    public void setSellerId(Long sellerId) { this.sellerId = sellerId; }
+
+    public long getProductCount() { return productCount; }
+    public void setProductCount(long productCount) { this.productCount = productCount; }
+
+    public long getUnitsInStock() { return unitsInStock; }
+    public void setUnitsInStock(long unitsInStock) { this.unitsInStock = unitsInStock; }
+
+    public BigDecimal getInventoryValue() { return inventoryValue; }
+    public void setInventoryValue(BigDecimal inventoryValue) { this.inventoryValue = inventoryValue; }
+
+    public long getLowStockCount() { return lowStockCount; }
+    public void setLowStockCount(long lowStockCount) { this.lowStockCount = lowStockCount; }
+
+    public long getOutOfStockCount() { return outOfStockCount; }
+    public void setOutOfStockCount(long outOfStockCount) { this.outOfStockCount = outOfStockCount; }
+}
@@ -0,0 +1,310 @@
+package com.revshop.inventory;
+
+import com.revshop.catalog.ProductChangePublisher;
+import com.revshop.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flash-sale mode for hot products. The product's stock is split across rows of
+ * flash_sale_shards, and checkouts take from a random shard, so concurrent buyers of one
+ * product lock different rows instead of queueing on its products row. A checkout that no
+ * single shard can cover locks all of the product's shards and takes from each in turn.
+ *
+ * While a sale runs the shards are the real stock. A background task evens the shards out
+ * again, so drained shards refill, and writes their sum back to products.stock. That is when
+ * the stock change is published to the in-memory views. Ending the sale folds the shards
+ * back into products.stock.
+ */
+@Component
+public class FlashSaleStock {
+
+    public static final int MAX_SHARDS = 64;
+
+    private static final String TAKE_SQL =
+            "UPDATE flash_sale_shards SET stock = stock - ? WHERE product_id = ? AND shard_no = ? AND stock >= ?";
+    private static final String SET_SQL = "UPDATE flash_sale_shards SET stock = ? WHERE product_id = ? AND shard_no = ?";
+    private static final String LOCK_SQL =
+            "SELECT stock FROM flash_sale_shards WHERE product_id = ? ORDER BY shard_no FOR UPDATE";
+
+    private final ProductRepository productRepository;
+    private final ProductChangePublisher changePublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long reconcileIntervalMillis;
+
+    // Products with shards, as of the last reconcile or local enable/disable
+    private final Set<Long> active = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong singleShardTakes = new AtomicLong();
+    private final AtomicLong shardMisses = new AtomicLong();
+    private final AtomicLong lockedTakes = new AtomicLong();
+    private final AtomicLong rebalances = new AtomicLong();
+
+    private ScheduledExecutorService reconciler;
+
+    public FlashSaleStock(ProductRepository productRepository, ProductChangePublisher changePublisher,
+                          JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          @Value("${revshop.flash-sale.reconcile-interval-ms:1000}") long reconcileIntervalMillis) {
+        this.productRepository = productRepository;
+        this.changePublisher = changePublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reconcileIntervalMillis = reconcileIntervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flash-sale-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciler.scheduleWithFixedDelay(this::reconcileInBackground, 0, reconcileIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+        }
+    }
+
+    public boolean isActive(Long productId) {
+        return active.contains(productId);
+    }
+
+    /**
+     * Start a flash sale: split the product's current stock evenly across the given number of shards
+     * @throws IllegalArgumentException for an unknown product, a product already on sale or a bad shard count
+     */
+    public void enable(Long productId, int shards) {
+        if (shards < 2 || shards > MAX_SHARDS) {
+            throw new IllegalArgumentException("A flash sale needs between 2 and " + MAX_SHARDS + " shards.");
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Integer> stock = jdbcTemplate.queryForList("SELECT stock FROM products WHERE product_id = ? FOR UPDATE",
+                    Integer.class, productId);
+            if (stock.isEmpty()) {
+                throw new IllegalArgumentException("Product not found with ID: " + productId);
+            }
+            if (!lockShards(productId).isEmpty()) {
+                throw new IllegalArgumentException("Product " + productId + " is already in a flash sale.");
+            }
+            int[] split = split(stock.get(0), shards);
+            List<Integer> shardNumbers = new ArrayList<>();
+            for (int shard = 0; shard < shards; shard++) {
+                shardNumbers.add(shard);
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO flash_sale_shards (product_id, shard_no, stock) VALUES (?, ?, ?)",
+                    shardNumbers, shards, (ps, shard) -> {
+                        ps.setLong(1, productId);
+                        ps.setInt(2, shard);
+                        ps.setInt(3, split[shard]);
+                    });
+        });
+        active.add(productId);
+        System.out.println("⚡ Flash sale started for product " + productId + " with " + shards + " shards");
+    }
+
+    /**
+     * End a flash sale and move what is left in the shards back to products.stock
+     * @return the product's stock after the sale
+     * @throws IllegalArgumentException if the product is not in a flash sale
+     */
+    public int disable(Long productId) {
+        Integer total = transactionTemplate.execute(status -> {
+            List<Integer> shards = lockShards(productId);
+            if (shards.isEmpty()) {
+                return null;
+            }
+            int sum = shards.stream().mapToInt(Integer::intValue).sum();
+            jdbcTemplate.update("DELETE FROM flash_sale_shards WHERE product_id = ?", productId);
+            writeBack(productId, sum);
+            return sum;
+        });
+        active.remove(productId);
+        if (total == null) {
+            throw new IllegalArgumentException("Product " + productId + " is not in a flash sale.");
+        }
+        System.out.println("⚡ Flash sale ended for product " + productId + ", " + total + " units left");
+        return total;
+    }
+
+    /**
+     * Current shard stock of the given products that are in a flash sale, indexed by shard number.
+     * A plain read, so checkout can pick a shard without locking anything.
+     */
+    public Map<Long, int[]> snapshot(Collection<Long> productIds) {
+        Map<Long, List<Integer>> shards = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            namedJdbcTemplate.query("SELECT product_id, stock FROM flash_sale_shards WHERE product_id IN (:ids) ORDER BY product_id, shard_no",
+                    Map.of("ids", productIds),
+                    rs -> {
+                        shards.computeIfAbsent(rs.getLong("product_id"), id -> new ArrayList<>()).add(rs.getInt("stock"));
+                    });
+        }
+        Map<Long, int[]> snapshot = new HashMap<>();
+        shards.forEach((productId, stocks) -> snapshot.put(productId, stocks.stream().mapToInt(Integer::intValue).toArray()));
+        return snapshot;
+    }
+
+    /**
+     * The given products that are in a flash sale, read with a lock so that a sale committed after
+     * the caller's snapshot is seen. enable locks the products row first, so a caller that holds
+     * the products rows also knows no sale can start for them until its transaction ends.
+     */
+    public Set<Long> inSaleLocked(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Set.of();
+        }
+        return Set.copyOf(namedJdbcTemplate.queryForList(
+                "SELECT product_id FROM flash_sale_shards WHERE product_id IN (:ids) FOR UPDATE",
+                Map.of("ids", productIds), Long.class));
+    }
+
+    /**
+     * Try to take quantity units of a flash-sale product from one shard, inside the caller's transaction.
+     * The shard is picked at random among those the snapshot shows with enough stock.
+     * A transaction makes at most one attempt per product, in product ID order, and gives up on a miss:
+     * a failed UPDATE can keep its row lock, and a second attempt could then lock shards out of order.
+     * @param shardStocks the product's entry from {@link #snapshot(Collection)}
+     * @return false if no shard could cover the quantity; roll back and use {@link #reserveLocked} instead
+     */
+    public boolean reserveFromOneShard(Long productId, int quantity, int[] shardStocks) {
+        int candidates = 0;
+        int picked = -1;
+        for (int shard = 0; shard < shardStocks.length; shard++) {
+            // Reservoir sampling: a uniform pick among the shards with enough stock
+            if (shardStocks[shard] >= quantity && ThreadLocalRandom.current().nextInt(++candidates) == 0) {
+                picked = shard;
+            }
+        }
+        if (picked >= 0 && jdbcTemplate.update(TAKE_SQL, quantity, productId, picked, quantity) == 1) {
+            singleShardTakes.incrementAndGet();
+            return true;
+        }
+        shardMisses.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Take quantity units of a flash-sale product from as many shards as needed, inside the caller's
+     * transaction. Locks all the product's shards in shard order, so it is safe to retry after a miss.
+     * @return false if all shards together hold fewer than quantity units; nothing is taken then
+     */
+    public boolean reserveLocked(Long productId, int quantity) {
+        List<Integer> locked = lockShards(productId);
+        if (locked.stream().mapToInt(Integer::intValue).sum() < quantity) {
+            return false;
+        }
+        int remaining = quantity;
+        for (int shard = 0; shard < locked.size() && remaining > 0; shard++) {
+            int take = Math.min(locked.get(shard), remaining);
+            if (take > 0) {
+                jdbcTemplate.update(SET_SQL, locked.get(shard) - take, productId, shard);
+                remaining -= take;
+            }
+        }
+        lockedTakes.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Even out every sale's shards and write their totals back to products.stock
+     */
+    public void reconcile() {
+        List<Long> productIds = jdbcTemplate.queryForList("SELECT DISTINCT product_id FROM flash_sale_shards", Long.class);
+        active.retainAll(productIds);
+        active.addAll(productIds);
+        for (Long productId : productIds) {
+            transactionTemplate.executeWithoutResult(status -> reconcile(productId));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("activeProducts", active.size());
+        stats.put("singleShardTakes", singleShardTakes.get());
+        stats.put("shardMisses", shardMisses.get());
+        stats.put("lockedTakes", lockedTakes.get());
+        stats.put("rebalances", rebalances.get());
+        return stats;
+    }
+
+    private void reconcile(Long productId) {
+        List<Integer> shards = lockShards(productId);
+        if (shards.isEmpty()) {
+            return;
+        }
+        int[] current = shards.stream().mapToInt(Integer::intValue).toArray();
+        int total = Arrays.stream(current).sum();
+        int[] even = split(total, current.length);
+        if (!Arrays.equals(current, even)) {
+            for (int shard = 0; shard < even.length; shard++) {
+                if (even[shard] != current[shard]) {
+                    jdbcTemplate.update(SET_SQL, even[shard], productId, shard);
+                }
+            }
+            rebalances.incrementAndGet();
+        }
+        writeBack(productId, total);
+    }
+
+    private void reconcileInBackground() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            System.err.println("❌ Flash sale reconcile failed, will retry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Set products.stock to the sale's total and publish it after commit, if it changed
+     */
+    private void writeBack(Long productId, int total) {
+        if (jdbcTemplate.update("UPDATE products SET stock = ? WHERE product_id = ? AND stock <> ?", total, productId, total) == 1) {
+            productRepository.findProductDTOById(productId).ifPresent(product -> {
+                product.setStock(total);
+                changePublisher.productSaved(product);
+            });
+        }
+    }
+
+    private List<Integer> lockShards(Long productId) {
+        return jdbcTemplate.queryForList(LOCK_SQL, Integer.class, productId);
+    }
+
+    /**
+     * total spread over n shards, the first total % n shards holding one unit more
+     */
+    static int[] split(int total, int n) {
+        int[] shards = new int[n];
+        for (int shard = 0; shard < n; shard++) {
+            shards[shard] = total / n + (shard < total % n ? 1 : 0);
+        }
+        return shards;
+    }
+}
@@ -0,0 +1,148 @@
+package com.revshop.inventory;
+
+import com.revshop.catalog.ProductChangeListener;
+import com.revshop.dto.ProductDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Products at or below their low-stock threshold, grouped by seller.
+ * Kept up to date from product change events (edits, imports and checkout stock decrements),
+ * so a seller's low-stock list costs O(result) instead of a products table scan.
+ * A product without a threshold is never low stock, same as the old stock &lt;= threshold query.
+ */
+@Component
+public class LowStockTracker implements ProductChangeListener {
+
+    // sellerId -> (productId -> product), in product ID order
+    private final Map<Long, TreeMap<Long, ProductDTO>> bySeller = new HashMap<>();
+    // productId -> sellerId for every product currently tracked
+    private final Map<Long, Long> sellerOf = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    private final AtomicLong enteredLowStock = new AtomicLong();
+    private final AtomicLong leftLowStock = new AtomicLong();
+
+    /**
+     * True once the startup snapshot has been loaded
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public static boolean isLowStock(ProductDTO product) {
+        return product.getStock() != null && product.getLowStockThreshold() != null
+                && product.getStock() <= product.getLowStockThreshold();
+    }
+
+    public List<ProductDTO> getLowStockProducts(Long sellerId) {
+        lock.readLock().lock();
+        try {
+            TreeMap<Long, ProductDTO> products = bySeller.get(sellerId);
+            return products == null ? List.of() : new ArrayList<>(products.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int count() {
+        lock.readLock().lock();
+        try {
+            return sellerOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("lowStockProducts", sellerOf.size());
+            stats.put("sellersWithLowStock", bySeller.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("enteredLowStock", enteredLowStock.get());
+        stats.put("leftLowStock", leftLowStock.get());
+        stats.put("ready", ready);
+        return stats;
+    }
+
+    @Override
+    public void onCatalogLoaded(List<ProductDTO> products) {
+        lock.writeLock().lock();
+        try {
+            bySeller.clear();
+            sellerOf.clear();
+            for (ProductDTO product : products) {
+                if (isLowStock(product)) {
+                    track(product);
+                }
+            }
+            ready = true;
+            System.out.println("📉 Tracking " + sellerOf.size() + " low-stock products");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(ProductDTO product) {
+        lock.writeLock().lock();
+        try {
+            boolean wasLow = untrack(product.getId());
+            boolean isLow = isLowStock(product);
+            if (isLow) {
+                track(product);
+            }
+            if (isLow && !wasLow) {
+                enteredLowStock.incrementAndGet();
+            } else if (wasLow && !isLow) {
+                leftLowStock.incrementAndGet();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Long productId) {
+        lock.writeLock().lock();
+        try {
+            untrack(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void track(ProductDTO product) {
+        bySeller.computeIfAbsent(product.getSellerId(), k -> new TreeMap<>()).put(product.getId(), product);
+        sellerOf.put(product.getId(), product.getSellerId());
+    }
+
+    private boolean untrack(Long productId) {
+        if (!sellerOf.containsKey(productId)) {
+            return false;
+        }
+        Long sellerId = sellerOf.remove(productId);
+        TreeMap<Long, ProductDTO> products = bySeller.get(sellerId);
+        if (products != null) {
+            products.remove(productId);
+            if (products.isEmpty()) {
+                bySeller.remove(sellerId);
+            }
+        }
+        return true;
+    }
+}
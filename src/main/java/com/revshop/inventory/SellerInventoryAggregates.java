@@ -0,0 +1,114 @@
+package com.revshop.inventory;
+
+import com.revshop.catalog.ProductChangeListener;
+import com.revshop.dto.ProductDTO;
+import com.revshop.dto.SellerSummaryDTO;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-seller inventory totals kept up to date from product change events.
+ * Each product's last contribution is remembered, so a write subtracts the old figures and adds
+ * the new ones instead of re-summing the seller's products. Stock sold through checkout arrives
+ * as a product event too, so order writes are covered the same way.
+ */
+@Component
+public class SellerInventoryAggregates implements ProductChangeListener {
+
+    private final Map<Long, Totals> sellers = new HashMap<>();
+    private final Map<Long, Contribution> products = new HashMap<>();
+    private volatile boolean ready;
+
+    /**
+     * True once the startup snapshot has been loaded
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized SellerSummaryDTO getSummary(Long sellerId) {
+        Totals totals = sellers.get(sellerId);
+        if (totals == null) {
+            return new SellerSummaryDTO(sellerId, 0, 0, BigDecimal.ZERO.setScale(2), 0, 0);
+        }
+        return new SellerSummaryDTO(sellerId, totals.productCount, totals.unitsInStock,
+                BigDecimal.valueOf(totals.valueCents, 2), totals.lowStockCount, totals.outOfStockCount);
+    }
+
+    @Override
+    public synchronized void onCatalogLoaded(List<ProductDTO> catalog) {
+        sellers.clear();
+        products.clear();
+        for (ProductDTO product : catalog) {
+            add(product);
+        }
+        ready = true;
+    }
+
+    @Override
+    public synchronized void onProductSaved(ProductDTO product) {
+        remove(product.getId());
+        add(product);
+    }
+
+    @Override
+    public synchronized void onProductDeleted(Long productId) {
+        remove(productId);
+    }
+
+    private void add(ProductDTO product) {
+        if (product.getSellerId() == null) {
+            return;
+        }
+        int stock = product.getStock() == null ? 0 : product.getStock();
+        Contribution contribution = new Contribution(product.getSellerId(), stock,
+                valueCents(product.getPrice(), stock), LowStockTracker.isLowStock(product), stock <= 0);
+        products.put(product.getId(), contribution);
+        sellers.computeIfAbsent(contribution.sellerId, id -> new Totals()).apply(contribution, 1);
+    }
+
+    private void remove(Long productId) {
+        Contribution contribution = products.remove(productId);
+        if (contribution == null) {
+            return;
+        }
+        Totals totals = sellers.get(contribution.sellerId);
+        totals.apply(contribution, -1);
+        if (totals.productCount == 0) {
+            sellers.remove(contribution.sellerId);
+        }
+    }
+
+    /**
+     * price x stock in cents, rounded half up
+     */
+    private static long valueCents(BigDecimal price, int stock) {
+        if (price == null || stock == 0) {
+            return 0;
+        }
+        return price.multiply(BigDecimal.valueOf(stock)).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private record Contribution(Long sellerId, int stock, long valueCents, boolean lowStock, boolean outOfStock) {}
+
+    private static final class Totals {
+        long productCount;
+        long unitsInStock;
+        long valueCents;
+        long lowStockCount;
+        long outOfStockCount;
+
+        void apply(Contribution contribution, int sign) {
+            productCount += sign;
+            unitsInStock += sign * (long) contribution.stock;
+            valueCents += sign * contribution.valueCents;
+            lowStockCount += contribution.lowStock ? sign : 0;
+            outOfStockCount += contribution.outOfStock ? sign : 0;
+        }
+    }
+}
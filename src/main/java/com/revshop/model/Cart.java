@@ -1,10 +1,12 @@
 package com.revshop.model;
 
+import com.revshop.money.Money;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "cart")
+@Table(name = "cart", uniqueConstraints =
+        @UniqueConstraint(name = "uk_cart_user_product", columnNames = {"user_id", "product_id"}))
 public class Cart {
 
     @Id
@@ -26,11 +28,11 @@ public class Cart {
     @Column(name = "quantity", nullable = false)
     private Integer quantity;
 
-    @Column(name = "price", nullable = false)
-    private Double price;
+    @Column(name = "price", nullable = false, precision = 19, scale = 2)
+    private Money price;
 
-    @Column(name = "total_price")
-    private Double totalPrice;
+    @Column(name = "total_price", precision = 19, scale = 2)
+    private Money totalPrice;
 
     @Column(name = "image_url")
     private String imageUrl;
@@ -41,13 +43,13 @@ public class Cart {
     // Constructors
     public Cart() {}
 
-    public Cart(User user, Product product, String productName, Integer quantity, Double price) {
+    public Cart(User user, Product product, String productName, Integer quantity, Money price) {
         this.user = user;
         this.product = product;
         this.productName = productName;
         this.quantity = quantity;
         this.price = price;
-        this.totalPrice = price * quantity;
+        this.totalPrice = price.times(quantity);
         this.createdAt = LocalDateTime.now();
     }
 
@@ -84,11 +86,11 @@ public class Cart {
     public Integer getQuantity() { return quantity; }
     public void setQuantity(Integer quantity) { this.quantity = quantity; }
 
-    public Double getPrice() { return price; }
-    public void setPrice(Double price) { this.price = price; }
+    public Money getPrice() { return price; }
+    public void setPrice(Money price) { this.price = price; }
 
-    public Double getTotalPrice() { return totalPrice; }
-    public void setTotalPrice(Double totalPrice) { this.totalPrice = totalPrice; }
+    public Money getTotalPrice() { return totalPrice; }
+    public void setTotalPrice(Money totalPrice) { this.totalPrice = totalPrice; }
 
     public String getImageUrl() { return imageUrl; }
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
@@ -102,14 +104,14 @@ public class Cart {
             createdAt = LocalDateTime.now();
         }
         if (totalPrice == null && price != null && quantity != null) {
-            totalPrice = price * quantity;
+            totalPrice = price.times(quantity);
         }
     }
 
     @PreUpdate
     protected void onUpdate() {
         if (totalPrice == null && price != null && quantity != null) {
-            totalPrice = price * quantity;
+            totalPrice = price.times(quantity);
         }
     }
 }
@@ -0,0 +1,40 @@
+package com.revshop.model;
+
+import jakarta.persistence.*;
+
+/**
+ * One slice of a flash-sale product's stock. Written only through FlashSaleStock.
+ */
+@Entity
+@Table(name = "flash_sale_shards", uniqueConstraints =
+        @UniqueConstraint(name = "uk_flash_sale_shard", columnNames = {"product_id", "shard_no"}))
+public class FlashSaleShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "shard_id")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false, referencedColumnName = "product_id")
+    private Product product;
+
+    @Column(name = "shard_no", nullable = false)
+    private int shardNo;
+
+    @Column(name = "stock", nullable = false)
+    private int stock;
+
+    // Getters & Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Product getProduct() { return product; }
+    public void setProduct(Product product) { this.product = product; }
+
+    public int getShardNo() { return shardNo; }
+    public void setShardNo(int shardNo) { this.shardNo = shardNo; }
+
+    public int getStock() { return stock; }
+    public void setStock(int stock) { this.stock = stock; }
+}
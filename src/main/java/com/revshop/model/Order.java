@@ -1,14 +1,18 @@
 package com.revshop.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.revshop.money.Money;
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "orders")
-public class Order {
+public class Order implements Persistable<Long> {
 
+    // Assigned by OrderIdGenerator before the first insert
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "order_id")
     private Long id;
 
@@ -16,8 +20,8 @@ public class Order {
     @JoinColumn(name = "buyer_id", nullable = false, referencedColumnName = "user_id")
     private User buyer;
 
-    @Column(name = "total_amount")
-    private double totalAmount;
+    @Column(name = "total_amount", precision = 19, scale = 2)
+    private Money totalAmount;
 
     @Column(name = "order_date")
     private LocalDateTime orderDate = LocalDateTime.now();
@@ -49,7 +53,20 @@ public class Order {
     @Column(name = "shipping_phone")
     private String shippingPhone;
 
+    @Transient
+    private boolean persisted;
+
+    // The ID is set before saving, so Spring Data cannot tell new orders from stored ones by it
+    @Override
+    @JsonIgnore
+    public boolean isNew() { return !persisted; }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() { persisted = true; }
+
     // Getters & Setters
+    @Override
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -65,8 +82,8 @@ public class Order {
         }
     }
 
-    public double getTotalAmount() { return totalAmount; }
-    public void setTotalAmount(double totalAmount) { this.totalAmount = totalAmount; }
+    public Money getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(Money totalAmount) { this.totalAmount = totalAmount; }
 
     public LocalDateTime getOrderDate() { return orderDate; }
     public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
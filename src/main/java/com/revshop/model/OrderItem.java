@@ -1,5 +1,6 @@
 package com.revshop.model;
 
+import com.revshop.money.Money;
 import jakarta.persistence.*;
 
 @Entity
@@ -7,7 +8,9 @@ import jakarta.persistence.*;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_item_id_pool")
+    @TableGenerator(name = "order_item_id_pool", table = "id_pool", pkColumnName = "pool_name", valueColumnName = "next_val",
+            pkColumnValue = "order_items", allocationSize = 50)
     @Column(name = "order_item_id")
     private Long id;
 
@@ -27,7 +30,8 @@ public class OrderItem {
 
     private int quantity;
 
-    private double price;
+    @Column(precision = 19, scale = 2)
+    private Money price;
 
     // Getters & Setters
     public Long getId() { return id; }
@@ -65,6 +69,6 @@ public class OrderItem {
     public int getQuantity() { return quantity; }
     public void setQuantity(int quantity) { this.quantity = quantity; }
 
-    public double getPrice() { return price; }
-    public void setPrice(double price) { this.price = price; }
+    public Money getPrice() { return price; }
+    public void setPrice(Money price) { this.price = price; }
 }
@@ -0,0 +1,82 @@
+package com.revshop.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of the store currency held as a whole number of minor units (cents).
+ * Sums and line totals are exact long arithmetic; overflow throws instead of wrapping.
+ * Stored as DECIMAL(19,2) through MoneyConverter and written to JSON as a plain number (19.99).
+ */
+@JsonSerialize(using = MoneyJson.Serializer.class)
+@JsonDeserialize(using = MoneyJson.Deserializer.class)
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Amount rounded half up to whole cents; null stays null
+     */
+    public static Money of(BigDecimal amount) {
+        return amount == null ? null : ofMinor(toMinorUnits(amount));
+    }
+
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * unitMinor x quantity without boxing, for totals accumulated in a long
+     */
+    public static long lineTotal(long unitMinor, int quantity) {
+        return Math.multiplyExact(unitMinor, (long) quantity);
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(int quantity) {
+        return ofMinor(lineTotal(minorUnits, quantity));
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    /**
+     * Plain decimal form with two fraction digits, e.g. "19.99" or "-0.05"
+     */
+    @Override
+    public String toString() {
+        long abs = Math.abs(minorUnits);
+        StringBuilder text = new StringBuilder(24);
+        if (minorUnits < 0) {
+            text.append('-');
+        }
+        long cents = abs % 100;
+        text.append(abs / 100).append('.').append(cents < 10 ? "0" : "").append(cents);
+        return text.toString();
+    }
+}
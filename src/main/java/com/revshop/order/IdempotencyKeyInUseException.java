@@ -0,0 +1,11 @@
+package com.revshop.order;
+
+/**
+ * The first request with this Idempotency-Key was still running when the duplicate stopped waiting for it
+ */
+public class IdempotencyKeyInUseException extends RuntimeException {
+
+    public IdempotencyKeyInUseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.revshop.order;
+
+/**
+ * The Idempotency-Key was first used by another buyer or with a different request body
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
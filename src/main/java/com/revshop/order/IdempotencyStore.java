@@ -0,0 +1,283 @@
+package com.revshop.order;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Dedup store for requests sent with an Idempotency-Key header. The first request for a key
+ * runs and its JSON response is written to idempotency_keys in the same transaction as the
+ * work itself, so a key is stored exactly when its order is. Later requests with the key get
+ * that response back without running again. A hash of the request is stored with the key, so a key
+ * reused for a different request, or by another buyer, is rejected instead of replayed.
+ *
+ * Recent keys are also kept in a bounded in-memory map, so a retry usually skips the table.
+ * A duplicate that arrives while the first request is still running waits for it. A duplicate
+ * on another instance loses on the primary key instead: its transaction rolls back and it
+ * replays the winner's response. A failed request stores nothing, so its key can be retried.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private static final String FIND_SQL =
+            "SELECT buyer_id, request_hash, response_body, created_at FROM idempotency_keys WHERE idempotency_key = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO idempotency_keys (idempotency_key, buyer_id, request_hash, response_body, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final long waitMillis;
+
+    private final LinkedHashMap<String, Entry> recent;
+    private final Map<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong waited = new AtomicLong();
+
+    private ScheduledExecutorService purger;
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                            @Value("${revshop.idempotency.max-size:10000}") int maxSize,
+                            @Value("${revshop.idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${revshop.idempotency.wait-ms:10000}") long waitMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.maxSize = maxSize;
+        this.ttlMillis = TimeUnit.HOURS.toMillis(ttlHours);
+        this.waitMillis = waitMillis;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > IdempotencyStore.this.maxSize;
+            }
+        };
+    }
+
+    @PostConstruct
+    public void start() {
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-key-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeInBackground, 0, 1, TimeUnit.HOURS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    /**
+     * Run the action once per key and return its response as JSON, or the stored response of the
+     * earlier request with this key
+     * @param request the request body, compared with the one the key was first used for
+     * @throws IdempotencyKeyMismatchException when the key was used by another buyer or for a different request
+     * @throws IdempotencyKeyInUseException when the first request with the key is still running after the wait timeout
+     */
+    public Result execute(String key, Long buyerId, Object request, Supplier<?> action) {
+        return executeOwnTransaction(key, buyerId, request, save -> transactionTemplate.execute(status -> {
+            Object response = action.get();
+            save.accept(response);
+            return response;
+        }));
+    }
+
+    /**
+     * Like execute, for an action that manages its own transactions. The action must pass its response
+     * to save inside the transaction that commits its work, so the key is stored exactly when that commits.
+     */
+    public Result executeOwnTransaction(String key, Long buyerId, Object request, Consumer<Consumer<Object>> action) {
+        String requestHash = hash(request);
+        while (true) {
+            Entry done = recent(key);
+            if (done != null) {
+                return replay(done, buyerId, requestHash);
+            }
+
+            CompletableFuture<Entry> mine = new CompletableFuture<>();
+            CompletableFuture<Entry> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                waited.incrementAndGet();
+                try {
+                    return replay(running.get(waitMillis, TimeUnit.MILLISECONDS), buyerId, requestHash);
+                } catch (ExecutionException e) {
+                    // The first request failed and stored nothing; run this one ourselves
+                    continue;
+                } catch (TimeoutException e) {
+                    throw new IdempotencyKeyInUseException("A request with this Idempotency-Key is still being processed. Please retry shortly.");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IdempotencyKeyInUseException("Interrupted while waiting for a request with the same Idempotency-Key.");
+                }
+            }
+
+            Outcome outcome;
+            try {
+                outcome = runOrLoad(key, buyerId, requestHash, action);
+                mine.complete(outcome.entry());
+            } catch (RuntimeException e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+            return outcome.ran() ? new Result(outcome.entry().response, false) : replay(outcome.entry(), buyerId, requestHash);
+        }
+    }
+
+    /**
+     * Delete keys older than the time to live
+     */
+    public int purgeExpired() {
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        synchronized (this) {
+            recent.values().removeIf(entry -> entry.createdAtMillis < cutoff);
+        }
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at < ?", new Timestamp(cutoff));
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", recent.size());
+        stats.put("maxSize", maxSize);
+        stats.put("inFlight", inFlight.size());
+        stats.put("executed", executed.get());
+        stats.put("replayed", replayed.get());
+        stats.put("waited", waited.get());
+        return stats;
+    }
+
+    private Outcome runOrLoad(String key, Long buyerId, String requestHash, Consumer<Consumer<Object>> action) {
+        Entry stored = load(key);
+        if (stored != null) {
+            return new Outcome(remember(key, stored), false);
+        }
+
+        long now = System.currentTimeMillis();
+        AtomicReference<String> saved = new AtomicReference<>();
+        try {
+            action.accept(response -> {
+                String json = toJson(response);
+                jdbcTemplate.update(INSERT_SQL, key, buyerId, requestHash, json, new Timestamp(now));
+                // An action that retries saves once per attempt; only the committed attempt's response counts
+                saved.set(json);
+            });
+            if (saved.get() == null) {
+                throw new IllegalStateException("Idempotent action finished without saving its response");
+            }
+            executed.incrementAndGet();
+            return new Outcome(remember(key, new Entry(buyerId, requestHash, saved.get(), now)), true);
+        } catch (DuplicateKeyException e) {
+            // Another instance stored the key first and our work was rolled back with the insert
+            return new Outcome(remember(key, load(key)), false);
+        }
+    }
+
+    private Result replay(Entry entry, Long buyerId, String requestHash) {
+        if (!entry.buyerId.equals(buyerId) || !entry.requestHash.equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException("This Idempotency-Key was already used for a different request.");
+        }
+        replayed.incrementAndGet();
+        return new Result(entry.response, true);
+    }
+
+    private synchronized Entry recent(String key) {
+        Entry entry = recent.get(key);
+        if (entry != null && entry.createdAtMillis < System.currentTimeMillis() - ttlMillis) {
+            recent.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized Entry remember(String key, Entry entry) {
+        recent.put(key, entry);
+        return entry;
+    }
+
+    private Entry load(String key) {
+        List<Entry> rows = jdbcTemplate.query(FIND_SQL, (rs, rowNum) -> new Entry(
+                rs.getLong("buyer_id"), rs.getString("request_hash"), rs.getString("response_body"),
+                rs.getTimestamp("created_at").getTime()), key);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * SHA-256 of the request's type and JSON, so the same key sent to another endpoint does not match either
+     */
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getClass().getName().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash the request for an Idempotency-Key", e);
+        }
+    }
+
+    private String toJson(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the response for an Idempotency-Key", e);
+        }
+    }
+
+    private void purgeInBackground() {
+        try {
+            int purged = purgeExpired();
+            if (purged > 0) {
+                System.out.println("🧹 Purged " + purged + " expired idempotency keys");
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Idempotency key purge failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A response as JSON, and whether it was replayed from an earlier request
+     */
+    public record Result(String response, boolean replayed) {}
+
+    private record Entry(Long buyerId, String requestHash, String response, long createdAtMillis) {}
+
+    private record Outcome(Entry entry, boolean ran) {}
+}
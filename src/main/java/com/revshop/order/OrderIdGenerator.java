@@ -0,0 +1,80 @@
+package com.revshop.order;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Time-ordered, node-aware order IDs (Snowflake layout), assigned before the order is inserted
+ * so the order number can go out in the same INSERT.
+ *
+ * An ID is milliseconds since 2024-01-01 (41 bits), the node ID (6 bits) and a per-millisecond
+ * sequence (6 bits). That is 53 bits, so IDs stay exact as JSON numbers in the browser.
+ * When a millisecond's sequence runs out, or the clock steps back, IDs continue from the last
+ * millisecond handed out instead of waiting, so a node never repeats an ID.
+ */
+@Component
+public class OrderIdGenerator {
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 6;
+    static final int SEQUENCE_BITS = 6;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private final int nodeId;
+    private final Clock clock;
+
+    private long lastMillis = -1;
+    private long sequence;
+
+    @Autowired
+    public OrderIdGenerator(@Value("${revshop.node-id:-1}") int nodeId,
+                            @Value("${revshop.single-instance:false}") boolean singleInstance) {
+        this(nodeId < 0 ? defaultNodeId(singleInstance) : nodeId, Clock.systemUTC());
+    }
+
+    OrderIdGenerator(int nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("revshop.node-id must be between 0 and " + MAX_NODE_ID + ", got " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public synchronized long nextId() {
+        long millis = clock.millis() - EPOCH_MILLIS;
+        if (millis > lastMillis) {
+            lastMillis = millis;
+            sequence = 0;
+        } else if (++sequence > MAX_SEQUENCE) {
+            lastMillis++;
+            sequence = 0;
+        }
+        return (lastMillis << (NODE_BITS + SEQUENCE_BITS)) | ((long) nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    public static String orderNumber(long orderId) {
+        return "ORD-" + orderId;
+    }
+
+    /**
+     * Node 0 when the application runs as a single instance; otherwise every instance must be given its own ID,
+     * since two instances with the same ID hand out the same order IDs
+     */
+    private static int defaultNodeId(boolean singleInstance) {
+        if (!singleInstance) {
+            throw new IllegalStateException("revshop.node-id must be set (0-" + MAX_NODE_ID
+                    + ") unless revshop.single-instance=true");
+        }
+        System.out.println("⚠️ revshop.node-id not set, using 0 for a single instance");
+        return 0;
+    }
+}
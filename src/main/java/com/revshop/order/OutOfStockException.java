@@ -0,0 +1,20 @@
+package com.revshop.order;
+
+import java.util.List;
+
+/**
+ * Checkout could not reserve stock for some cart lines; nothing was reserved or ordered
+ */
+public class OutOfStockException extends RuntimeException {
+
+    private final List<Long> productIds;
+
+    public OutOfStockException(List<Long> productIds) {
+        super("Not enough stock for product(s) " + productIds + ". Please update your cart and try again.");
+        this.productIds = List.copyOf(productIds);
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+}
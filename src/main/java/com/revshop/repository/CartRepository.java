@@ -1,13 +1,20 @@
 package com.revshop.repository;
 
+import com.revshop.dto.CartSummaryDTO;
 import com.revshop.model.Cart;
 import com.revshop.model.User;
 import com.revshop.model.Product;
+import com.revshop.money.Money;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Repository
@@ -18,8 +25,17 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     @Query("SELECT c FROM Cart c WHERE c.user.id = :userId")
     List<Cart> findByUserId(@Param("userId") Long userId);
 
+    /**
+     * A user's cart rows, locked until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cart c WHERE c.user.id = :userId")
+    List<Cart> findByUserIdForUpdate(@Param("userId") Long userId);
+
     void deleteByUser(User user);
 
+    @Modifying
+    @Transactional
     @Query("DELETE FROM Cart c WHERE c.user.id = :userId")
     void deleteByUserId(@Param("userId") Long userId);
 
@@ -27,4 +43,17 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
 
     @Query("SELECT c FROM Cart c WHERE c.user.id = :userId AND c.product.id = :productId")
     List<Cart> findByUserIdAndProductId(@Param("userId") Long userId, @Param("productId") Long productId);
-}
\ No newline at end of file
+
+    /**
+     * One row of [lineCount, unitCount, subtotal] for a user's cart, without loading the rows
+     */
+    @Query(value = "SELECT COUNT(*), COALESCE(SUM(quantity), 0), COALESCE(SUM(price * quantity), 0) FROM cart WHERE user_id = :userId",
+           nativeQuery = true)
+    List<Object[]> summarizeByUserId(@Param("userId") Long userId);
+
+    default CartSummaryDTO findSummaryByUserId(Long userId) {
+        Object[] row = summarizeByUserId(userId).get(0);
+        return new CartSummaryDTO(userId, ((Number) row[0]).intValue(), ((Number) row[1]).longValue(),
+                Money.of(new BigDecimal(row[2].toString())));
+    }
+}
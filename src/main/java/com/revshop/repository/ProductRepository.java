@@ -1,13 +1,22 @@
 package com.revshop.repository;
 
+import com.revshop.dto.ProductDTO;
 import com.revshop.model.Product;
 import com.revshop.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -50,9 +59,149 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p WHERE p.stock <= p.lowStockThreshold")
     List<Product> findLowStockProducts();
     
+    @Query("""
+        SELECT new com.revshop.dto.ProductDTO(
+            p.id, p.name, p.description, p.price, p.stock, p.category,
+            p.imageUrl, p.lowStockThreshold, s.id, s.name
+        )
+        FROM Product p JOIN p.seller s
+        WHERE s.id = :sellerId AND p.stock <= p.lowStockThreshold
+        ORDER BY p.id ASC
+        """)
+    List<ProductDTO> findLowStockProductDTOsBySellerId(@Param("sellerId") Long sellerId);
+
+    /**
+     * Product count per distinct category value: rows of [category, count]
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT p.category, COUNT(p) FROM Product p WHERE p.category IS NOT NULL GROUP BY p.category")
+    List<Object[]> countProductsByCategory();
+
+    /**
+     * DTO projections: one SQL statement with the seller joined in
+     * Avoids the N+1 selects caused by touching the LAZY seller in convertToDTO
+     */
+    @Query("""
+        SELECT new com.revshop.dto.ProductDTO(
+            p.id, p.name, p.description, p.price, p.stock, p.category,
+            p.imageUrl, p.lowStockThreshold, s.id, s.name
+        )
+        FROM Product p LEFT JOIN p.seller s
+        ORDER BY p.id ASC
+        """)
+    List<ProductDTO> findAllProductDTOs();
+
+    @Query("""
+        SELECT new com.revshop.dto.ProductDTO(
+            p.id, p.name, p.description, p.price, p.stock, p.category,
+            p.imageUrl, p.lowStockThreshold, s.id, s.name
+        )
+        FROM Product p LEFT JOIN p.seller s
+        WHERE p.id = :productId
+        """)
+    Optional<ProductDTO> findProductDTOById(@Param("productId") Long productId);
+
+    @Query("""
+        SELECT new com.revshop.dto.ProductDTO(
+            p.id, p.name, p.description, p.price, p.stock, p.category,
+            p.imageUrl, p.lowStockThreshold, s.id, s.name
+        )
+        FROM Product p LEFT JOIN p.seller s
+        WHERE p.id IN :productIds
+        """)
+    List<ProductDTO> findProductDTOsByIds(@Param("productIds") Collection<Long> productIds);
+
+    @Query("""
+        SELECT new com.revshop.dto.ProductDTO(
+            p.id, p.name, p.description, p.price, p.stock, p.category,
+            p.imageUrl, p.lowStockThreshold, s.id, s.name
+        )
+        FROM Product p JOIN p.seller s
+        WHERE s.id = :sellerId
+        ORDER BY p.id ASC
+        """)
+    List<ProductDTO> findProductDTOsBySellerId(@Param("sellerId") Long sellerId);
+
+    @Query("""
+        SELECT new com.revshop.dto.ProductDTO(
+            p.id, p.name, p.description, p.price, p.stock, p.category,
+            p.imageUrl, p.lowStockThreshold, s.id, s.name
+        )
+        FROM Product p LEFT JOIN p.seller s
+        WHERE LOWER(p.category) = LOWER(:category)
+        ORDER BY p.id ASC
+        """)
+    List<ProductDTO> findProductDTOsByCategory(@Param("category") String category);
+
+    /**
+     * Substring match on name or description; the keyword must have LIKE wildcards escaped with '!'
+     */
+    @Query("""
+        SELECT new com.revshop.dto.ProductDTO(
+            p.id, p.name, p.description, p.price, p.stock, p.category,
+            p.imageUrl, p.lowStockThreshold, s.id, s.name
+        )
+        FROM Product p LEFT JOIN p.seller s
+        WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) ESCAPE '!'
+           OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) ESCAPE '!'
+        ORDER BY p.id ASC
+        """)
+    List<ProductDTO> searchProductDTOs(@Param("keyword") String keyword, Pageable pageable);
+
+    /**
+     * Keyset page: products after the given ID in primary key order
+     * Seeks on the product_id index instead of skipping rows with OFFSET
+     * Pass PageRequest.of(0, n) to bound the page; the page number must stay 0
+     */
+    @Query("""
+        SELECT new com.revshop.dto.ProductDTO(
+            p.id, p.name, p.description, p.price, p.stock, p.category,
+            p.imageUrl, p.lowStockThreshold, s.id, s.name
+        )
+        FROM Product p LEFT JOIN p.seller s
+        WHERE p.id > :afterId
+        ORDER BY p.id ASC
+        """)
+    List<ProductDTO> findProductDTOPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Forward-only stream over the whole catalog for exports
+     * Rows are fetched from the driver in chunks; DTOs are not managed, so the persistence context stays empty
+     * Must be consumed inside a transaction and closed afterwards
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+        SELECT new com.revshop.dto.ProductDTO(
+            p.id, p.name, p.description, p.price, p.stock, p.category,
+            p.imageUrl, p.lowStockThreshold, s.id, s.name
+        )
+        FROM Product p LEFT JOIN p.seller s
+        ORDER BY p.id ASC
+        """)
+    Stream<ProductDTO> streamAllProductDTOs();
+
     /**
      * Count products by seller
      */
     @Query("SELECT COUNT(p) FROM Product p WHERE p.seller.id = :sellerId")
     Long countBySellerId(@Param("sellerId") Long sellerId);
+
+    /**
+     * One row of seller inventory totals:
+     * [productCount, unitsInStock, inventoryValue, lowStockCount, outOfStockCount]
+     */
+    @Query("""
+        SELECT COUNT(p),
+               COALESCE(SUM(p.stock), 0),
+               COALESCE(SUM(p.price * p.stock), 0),
+               COALESCE(SUM(CASE WHEN p.stock <= p.lowStockThreshold THEN 1 ELSE 0 END), 0),
+               COALESCE(SUM(CASE WHEN p.stock <= 0 THEN 1 ELSE 0 END), 0)
+        FROM Product p
+        WHERE p.seller.id = :sellerId
+        """)
+    List<Object[]> summarizeBySellerId(@Param("sellerId") Long sellerId);
 }
@@ -0,0 +1,133 @@
+package com.revshop.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sorted, duplicate-free list of product IDs backed by a primitive array.
+ * New products get increasing IDs, so inserts are almost always appends.
+ * Each ID carries a long payload (packed ranking statistics, see ProductSearchIndex).
+ */
+final class PostingList {
+
+    private long[] ids = new long[4];
+    private long[] payloads = new long[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    long payload(int index) {
+        return payloads[index];
+    }
+
+    boolean add(long id) {
+        return add(id, 0);
+    }
+
+    boolean add(long id, long payload) {
+        if (size > 0 && ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size] = id;
+            payloads[size++] = payload;
+            return true;
+        }
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            return false;
+        }
+        int insertAt = -pos - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        System.arraycopy(payloads, insertAt, payloads, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        payloads[insertAt] = payload;
+        size++;
+        return true;
+    }
+
+    boolean remove(long id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        System.arraycopy(payloads, pos + 1, payloads, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    /**
+     * Sorted merge of several lists (the products matching any of them).
+     * A product in more than one list keeps the payload from the first.
+     */
+    static PostingList union(List<PostingList> lists) {
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        PostingList result = new PostingList();
+        for (PostingList list : lists) {
+            result = merge(result, list);
+        }
+        return result;
+    }
+
+    private static PostingList merge(PostingList a, PostingList b) {
+        PostingList merged = new PostingList();
+        int capacity = Math.max(4, a.size + b.size);
+        merged.ids = new long[capacity];
+        merged.payloads = new long[capacity];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.size || j < b.size) {
+            if (j >= b.size || (i < a.size && a.ids[i] < b.ids[j])) {
+                merged.ids[n] = a.ids[i];
+                merged.payloads[n++] = a.payloads[i++];
+            } else if (i >= a.size || b.ids[j] < a.ids[i]) {
+                merged.ids[n] = b.ids[j];
+                merged.payloads[n++] = b.payloads[j++];
+            } else {
+                merged.ids[n] = a.ids[i];
+                merged.payloads[n++] = a.payloads[i++];
+                j++;
+            }
+        }
+        merged.size = n;
+        return merged;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            payloads = Arrays.copyOf(payloads, size * 2);
+        }
+    }
+
+    /**
+     * Index of the first element >= target, searching from {@code from} with exponential steps
+     */
+    int gallop(long target, int from) {
+        if (from >= size || ids[from] >= target) {
+            return from;
+        }
+        int step = 1;
+        int low = from;
+        int high = from + 1;
+        while (high < size && ids[high] < target) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        if (high > size) {
+            high = size;
+        }
+        int pos = Arrays.binarySearch(ids, low + 1, high, target);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+}
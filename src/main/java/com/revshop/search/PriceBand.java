@@ -0,0 +1,53 @@
+package com.revshop.search;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed price buckets used for price facets. Each band covers [lower, next band's lower).
+ */
+public enum PriceBand {
+    UNDER_25("0-25", "0"),
+    FROM_25("25-50", "25"),
+    FROM_50("50-100", "50"),
+    FROM_100("100-250", "100"),
+    FROM_250("250-500", "250"),
+    FROM_500("500-1000", "500"),
+    FROM_1000("1000+", "1000");
+
+    private final String label;
+    private final BigDecimal lower;
+
+    PriceBand(String label, String lower) {
+        this.label = label;
+        this.lower = new BigDecimal(lower);
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static PriceBand of(BigDecimal price) {
+        PriceBand[] bands = values();
+        if (price == null) {
+            return bands[0];
+        }
+        for (int i = bands.length - 1; i > 0; i--) {
+            if (price.compareTo(bands[i].lower) >= 0) {
+                return bands[i];
+            }
+        }
+        return bands[0];
+    }
+
+    /**
+     * Parse a band from its label ("50-100") or enum name ("FROM_50")
+     */
+    public static PriceBand fromLabel(String value) {
+        for (PriceBand band : values()) {
+            if (band.label.equals(value) || band.name().equalsIgnoreCase(value)) {
+                return band;
+            }
+        }
+        throw new IllegalArgumentException("Unknown price band: " + value);
+    }
+}
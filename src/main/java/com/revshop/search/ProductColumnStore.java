@@ -0,0 +1,267 @@
+package com.revshop.search;
+
+import com.revshop.catalog.ProductChangeListener;
+import com.revshop.dto.ProductDTO;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar snapshot of the catalog for price scans: product ID, price in cents, stock,
+ * category ordinal and seller ID, one primitive array per column.
+ * A sorted array of (price, row) keys turns a price range into a contiguous slice, walked in
+ * either direction, so range queries and price sorts allocate nothing per row.
+ * Rows of deleted products are dropped from the price order and handed to the next new product.
+ */
+@Component
+public class ProductColumnStore implements ProductChangeListener {
+
+    // Sort keys are (priceCents << ROW_BITS) | row
+    private static final int ROW_BITS = 23;
+    private static final long ROW_MASK = (1L << ROW_BITS) - 1;
+    private static final int MAX_ROWS = 1 << ROW_BITS;
+    private static final long MAX_PRICE_CENTS = (1L << (63 - ROW_BITS)) - 1;
+    private static final int NO_CATEGORY = -1;
+
+    private long[] ids = new long[0];
+    private long[] priceCents = new long[0];
+    private int[] stock = new int[0];
+    private int[] categories = new int[0];
+    private long[] sellers = new long[0];
+    private int rows;
+    private int[] freeRows = new int[0];
+    private int freeCount;
+
+    private long[] priceKeys = new long[0];
+    private int keyCount;
+
+    private final Map<Long, Integer> rowOf = new HashMap<>();
+    private final Map<String, Integer> categoryOrdinals = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    /**
+     * True once the startup snapshot has been loaded
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rowOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rows in use or waiting on the free stack; stays flat while deletes and creates balance out
+     */
+    int rowCount() {
+        lock.readLock().lock();
+        try {
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * IDs of products priced within [minCents, maxCents], ordered by price (then by row) in the given direction.
+     * Null filters are ignored; category matching is case-insensitive.
+     */
+    public long[] findByPrice(long minCents, long maxCents, String category, Long sellerId, boolean inStockOnly,
+                              boolean descending, int offset, int limit) {
+        if (limit <= 0 || minCents > maxCents) {
+            return new long[0];
+        }
+        lock.readLock().lock();
+        try {
+            int categoryFilter = NO_CATEGORY;
+            if (category != null) {
+                Integer ordinal = categoryOrdinals.get(categoryKey(category));
+                if (ordinal == null) {
+                    return new long[0];
+                }
+                categoryFilter = ordinal;
+            }
+
+            int from = lowerBound(Math.min(Math.max(0, minCents), MAX_PRICE_CENTS) << ROW_BITS);
+            int to = maxCents >= MAX_PRICE_CENTS ? keyCount : lowerBound((maxCents + 1) << ROW_BITS);
+            // Unfiltered, every key in the slice matches, so the offset is skipped by index
+            boolean unfiltered = !inStockOnly && categoryFilter == NO_CATEGORY && sellerId == null;
+            int start = unfiltered ? (int) Math.min(offset, to - from) : 0;
+            long[] result = new long[Math.min(limit, to - from - start)];
+            int found = 0;
+            int skipped = unfiltered ? offset : 0;
+            for (int i = start; i < to - from && found < result.length; i++) {
+                int row = (int) (priceKeys[descending ? to - 1 - i : from + i] & ROW_MASK);
+                if (inStockOnly && stock[row] <= 0) {
+                    continue;
+                }
+                if (categoryFilter != NO_CATEGORY && categories[row] != categoryFilter) {
+                    continue;
+                }
+                if (sellerId != null && sellers[row] != sellerId) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                result[found++] = ids[row];
+            }
+            return found == result.length ? result : Arrays.copyOf(result, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onCatalogLoaded(List<ProductDTO> products) {
+        lock.writeLock().lock();
+        try {
+            int capacity = Math.max(16, products.size() + products.size() / 4);
+            ids = new long[capacity];
+            priceCents = new long[capacity];
+            stock = new int[capacity];
+            categories = new int[capacity];
+            sellers = new long[capacity];
+            priceKeys = new long[capacity];
+            rows = 0;
+            freeCount = 0;
+            keyCount = 0;
+            rowOf.clear();
+            categoryOrdinals.clear();
+
+            for (ProductDTO product : products) {
+                if (rows == MAX_ROWS) {
+                    System.err.println("❌ Column store is full, products after ID " + ids[rows - 1] + " are not indexed");
+                    break;
+                }
+                int row = rows++;
+                write(row, product);
+                priceKeys[keyCount++] = key(row);
+            }
+            Arrays.sort(priceKeys, 0, keyCount);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(ProductDTO product) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowOf.get(product.getId());
+            if (row == null) {
+                if (freeCount > 0) {
+                    row = freeRows[--freeCount];
+                } else if (rows == MAX_ROWS) {
+                    System.err.println("❌ Column store is full, product " + product.getId() + " is not indexed");
+                    return;
+                } else {
+                    row = rows++;
+                    ensureCapacity(rows);
+                }
+            } else {
+                removeKey(key(row));
+            }
+            write(row, product);
+            insertKey(key(row));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowOf.remove(productId);
+            if (row != null) {
+                removeKey(key(row));
+                if (freeCount == freeRows.length) {
+                    freeRows = Arrays.copyOf(freeRows, Math.max(16, freeCount * 2));
+                }
+                freeRows[freeCount++] = row;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Price in whole cents, rounded half up; missing or negative prices count as zero
+     */
+    public static long toCents(BigDecimal price) {
+        if (price == null || price.signum() <= 0) {
+            return 0;
+        }
+        return Math.min(price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue(), MAX_PRICE_CENTS);
+    }
+
+    private void write(int row, ProductDTO product) {
+        ids[row] = product.getId();
+        priceCents[row] = toCents(product.getPrice());
+        stock[row] = product.getStock() == null ? 0 : product.getStock();
+        categories[row] = product.getCategory() == null ? NO_CATEGORY
+                : categoryOrdinals.computeIfAbsent(categoryKey(product.getCategory()), k -> categoryOrdinals.size());
+        sellers[row] = product.getSellerId() == null ? 0 : product.getSellerId();
+        rowOf.put(product.getId(), row);
+    }
+
+    private long key(int row) {
+        return priceCents[row] << ROW_BITS | row;
+    }
+
+    private int lowerBound(long key) {
+        int pos = Arrays.binarySearch(priceKeys, 0, keyCount, key);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+
+    private void insertKey(long key) {
+        if (keyCount == priceKeys.length) {
+            priceKeys = Arrays.copyOf(priceKeys, Math.max(16, keyCount * 2));
+        }
+        int pos = lowerBound(key);
+        System.arraycopy(priceKeys, pos, priceKeys, pos + 1, keyCount - pos);
+        priceKeys[pos] = key;
+        keyCount++;
+    }
+
+    private void removeKey(long key) {
+        int pos = Arrays.binarySearch(priceKeys, 0, keyCount, key);
+        if (pos >= 0) {
+            System.arraycopy(priceKeys, pos + 1, priceKeys, pos, keyCount - pos - 1);
+            keyCount--;
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(16, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        stock = Arrays.copyOf(stock, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        sellers = Arrays.copyOf(sellers, capacity);
+    }
+
+    private static String categoryKey(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+}
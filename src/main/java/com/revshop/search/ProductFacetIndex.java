@@ -0,0 +1,290 @@
+package com.revshop.search;
+
+import com.revshop.catalog.ProductChangeListener;
+import com.revshop.dto.ProductDTO;
+import com.revshop.dto.ProductFacetResultDTO;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Compressed bitmaps per category, price band, seller and stock state.
+ * Products get dense document numbers (in product ID order after each reload), so a
+ * combined filter is a handful of bitmap ORs and ANDs, and a facet count is one AND cardinality.
+ * A deleted product's number is handed to the next new product, so churn does not grow the index.
+ */
+@Component
+public class ProductFacetIndex implements ProductChangeListener {
+
+    public static final String CATEGORY = "category";
+    public static final String PRICE_BAND = "priceBand";
+    public static final String SELLER = "seller";
+    public static final String STOCK = "stock";
+
+    private final List<ProductDTO> documents = new ArrayList<>();
+    private final Map<Long, Integer> docIds = new HashMap<>();
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final RoaringBitmap free = new RoaringBitmap();
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> categories = new HashMap<>();
+    private final Map<String, String> categoryLabels = new HashMap<>();
+    private final Map<PriceBand, RoaringBitmap> priceBands = new EnumMap<>(PriceBand.class);
+    private final Map<Long, RoaringBitmap> sellers = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    /**
+     * True once the startup snapshot has been indexed
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Products matching every facet filter, with facet counts for the same filter
+     */
+    public ProductFacetResultDTO query(ProductFacetQuery query) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap categoryFilter = union(query.categories(), value -> categories.get(categoryKey(value)));
+            RoaringBitmap priceFilter = union(query.priceBands(), priceBands::get);
+            RoaringBitmap sellerFilter = union(query.sellerIds(), sellers::get);
+            RoaringBitmap stockFilter = stockFilter(query.inStock());
+
+            RoaringBitmap matches = intersect(categoryFilter, priceFilter, sellerFilter, stockFilter);
+
+            // Each facet is counted without its own filter, so the other values stay selectable
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            facets.put(CATEGORY, counts(intersect(null, priceFilter, sellerFilter, stockFilter),
+                    categories, categoryLabels::get));
+            facets.put(PRICE_BAND, counts(intersect(categoryFilter, null, sellerFilter, stockFilter),
+                    priceBands, PriceBand::getLabel));
+            facets.put(SELLER, counts(intersect(categoryFilter, priceFilter, null, stockFilter),
+                    sellers, String::valueOf));
+            RoaringBitmap stockBase = intersect(categoryFilter, priceFilter, sellerFilter, null);
+            Map<String, Integer> stock = new LinkedHashMap<>();
+            stock.put("inStock", RoaringBitmap.andCardinality(stockBase, inStock));
+            stock.put("outOfStock", RoaringBitmap.andNotCardinality(stockBase, inStock));
+            facets.put(STOCK, stock);
+
+            return new ProductFacetResultDTO(page(matches, query.offset(), query.limit()),
+                    matches.getCardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Every product in a category (case-insensitive exact match), in document order
+     */
+    public List<ProductDTO> findByCategory(String category) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap docs = categories.get(categoryKey(category));
+            return docs == null ? List.of() : page(docs, 0, Integer.MAX_VALUE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onCatalogLoaded(List<ProductDTO> products) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            docIds.clear();
+            live.clear();
+            free.clear();
+            inStock.clear();
+            categories.clear();
+            categoryLabels.clear();
+            priceBands.clear();
+            sellers.clear();
+
+            List<ProductDTO> sorted = new ArrayList<>(products);
+            sorted.sort(Comparator.comparing(ProductDTO::getId));
+            for (ProductDTO product : sorted) {
+                int doc = documents.size();
+                documents.add(product);
+                docIds.put(product.getId(), doc);
+                addToFacets(doc, product);
+            }
+            for (RoaringBitmap bitmap : List.of(live, inStock)) {
+                bitmap.runOptimize();
+            }
+            categories.values().forEach(RoaringBitmap::runOptimize);
+            priceBands.values().forEach(RoaringBitmap::runOptimize);
+            sellers.values().forEach(RoaringBitmap::runOptimize);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(ProductDTO product) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docIds.get(product.getId());
+            if (doc == null) {
+                if (free.isEmpty()) {
+                    doc = documents.size();
+                    documents.add(product);
+                } else {
+                    doc = free.first();
+                    free.remove(doc);
+                    documents.set(doc, product);
+                }
+                docIds.put(product.getId(), doc);
+            } else {
+                removeFromFacets(doc, documents.get(doc));
+                documents.set(doc, product);
+            }
+            addToFacets(doc, product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docIds.remove(productId);
+            if (doc != null) {
+                removeFromFacets(doc, documents.get(doc));
+                // Other document numbers don't move; the next new product takes this one
+                documents.set(doc, null);
+                free.add(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addToFacets(int doc, ProductDTO product) {
+        live.add(doc);
+        if (product.getStock() != null && product.getStock() > 0) {
+            inStock.add(doc);
+        }
+        String category = categoryKey(product.getCategory());
+        categories.computeIfAbsent(category, k -> new RoaringBitmap()).add(doc);
+        categoryLabels.putIfAbsent(category, product.getCategory() == null ? "" : product.getCategory());
+        priceBands.computeIfAbsent(PriceBand.of(product.getPrice()), k -> new RoaringBitmap()).add(doc);
+        if (product.getSellerId() != null) {
+            sellers.computeIfAbsent(product.getSellerId(), k -> new RoaringBitmap()).add(doc);
+        }
+    }
+
+    private void removeFromFacets(int doc, ProductDTO product) {
+        live.remove(doc);
+        inStock.remove(doc);
+        String category = categoryKey(product.getCategory());
+        if (removeFrom(categories, category, doc)) {
+            categoryLabels.remove(category);
+        }
+        removeFrom(priceBands, PriceBand.of(product.getPrice()), doc);
+        if (product.getSellerId() != null) {
+            removeFrom(sellers, product.getSellerId(), doc);
+        }
+    }
+
+    /**
+     * Remove a document from a value's bitmap, dropping the value once empty; true if it was dropped
+     */
+    private static <K> boolean removeFrom(Map<K, RoaringBitmap> bitmaps, K key, int doc) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap == null) {
+            return false;
+        }
+        bitmap.remove(doc);
+        if (bitmap.isEmpty()) {
+            bitmaps.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    private RoaringBitmap stockFilter(Boolean wantInStock) {
+        if (wantInStock == null) {
+            return null;
+        }
+        return wantInStock ? inStock : RoaringBitmap.andNot(live, inStock);
+    }
+
+    /**
+     * OR of the bitmaps for the selected values, or null when nothing is selected (no filter)
+     */
+    private static <V> RoaringBitmap union(Iterable<V> values, Function<V, RoaringBitmap> lookup) {
+        RoaringBitmap result = null;
+        for (V value : values) {
+            if (result == null) {
+                result = new RoaringBitmap();
+            }
+            RoaringBitmap bitmap = lookup.apply(value);
+            if (bitmap != null) {
+                result.or(bitmap);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * AND of the live documents with every non-null filter
+     */
+    private RoaringBitmap intersect(RoaringBitmap... filters) {
+        RoaringBitmap result = live;
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                result = RoaringBitmap.and(result, filter);
+            }
+        }
+        return result;
+    }
+
+    private static <K> Map<String, Integer> counts(RoaringBitmap base, Map<K, RoaringBitmap> bitmaps,
+                                                   Function<K, String> label) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (Map.Entry<K, RoaringBitmap> entry : bitmaps.entrySet()) {
+            int count = RoaringBitmap.andCardinality(base, entry.getValue());
+            if (count > 0) {
+                entries.add(Map.entry(label.apply(entry.getKey()), count));
+            }
+        }
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        entries.forEach(entry -> counts.merge(entry.getKey(), entry.getValue(), Integer::sum));
+        return counts;
+    }
+
+    private List<ProductDTO> page(RoaringBitmap docs, int offset, int limit) {
+        int total = docs.getCardinality();
+        if (offset >= total || limit <= 0) {
+            return List.of();
+        }
+        List<ProductDTO> results = new ArrayList<>(Math.min(limit, total - offset));
+        PeekableIntIterator it = docs.getIntIterator();
+        it.advanceIfNeeded(docs.select(offset));
+        while (it.hasNext() && results.size() < limit) {
+            results.add(documents.get(it.next()));
+        }
+        return results;
+    }
+
+    private static String categoryKey(String category) {
+        return category == null ? "" : category.toLowerCase(Locale.ROOT);
+    }
+}
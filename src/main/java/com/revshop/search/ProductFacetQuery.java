@@ -0,0 +1,24 @@
+package com.revshop.search;
+
+import java.util.Set;
+
+/**
+ * Facet filters: values within a facet are ORed, facets are ANDed together.
+ * An empty set (or a null inStock) leaves that facet unfiltered.
+ */
+public record ProductFacetQuery(Set<String> categories,
+                                Set<PriceBand> priceBands,
+                                Set<Long> sellerIds,
+                                Boolean inStock,
+                                int offset,
+                                int limit) {
+
+    public ProductFacetQuery {
+        categories = categories == null ? Set.of() : categories;
+        priceBands = priceBands == null ? Set.of() : priceBands;
+        sellerIds = sellerIds == null ? Set.of() : sellerIds;
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative");
+        }
+    }
+}
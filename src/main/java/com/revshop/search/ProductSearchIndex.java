@@ -0,0 +1,325 @@
+package com.revshop.search;
+
+import com.revshop.catalog.ProductChangeListener;
+import com.revshop.dto.ProductDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, description and category.
+ * Every term maps to a sorted posting list of product IDs; a multi-term query walks the
+ * shortest list and gallops through the others to find the products containing all of its terms.
+ * Matches are scored in that same pass and ranked with BM25F (name weighted above category above description, in-stock
+ * products boosted), and only the best {@code limit} are kept in a bounded heap.
+ * In fuzzy mode an unknown term is replaced by the closest product-name terms from a trigram index.
+ */
+@Component
+public class ProductSearchIndex implements ProductChangeListener {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double NAME_BOOST = 3.0;
+    private static final double CATEGORY_BOOST = 1.5;
+    private static final double DESCRIPTION_BOOST = 1.0;
+    private static final double IN_STOCK_BOOST = 1.2;
+
+    /*
+     * Each posting's payload packs everything needed to score it, so ranking never leaves the arrays:
+     * low 32 bits are the term's frequency in name (8 bits), category (8) and description (12);
+     * high 32 bits are the product's name (8), category (8) and description (12) lengths and an in-stock flag.
+     */
+    private static final int SHORT_MASK = 0xFF;
+    private static final int LONG_MASK = 0xFFF;
+    private static final int IN_STOCK_BIT = 1 << 28;
+
+    private static final Comparator<ScoredProduct> WORST_FIRST = Comparator
+            .comparingDouble(ScoredProduct::score)
+            .thenComparing(ScoredProduct::id, Comparator.reverseOrder());
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private long totalNameLength;
+    private long totalCategoryLength;
+    private long totalDescriptionLength;
+    private final TrigramIndex nameTerms = new TrigramIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    /**
+     * True once the startup snapshot has been indexed
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find products containing every term of the query, most relevant first
+     */
+    public List<ProductDTO> search(String query, int limit) {
+        return search(query, limit, false);
+    }
+
+    /**
+     * Same as {@link #search(String, int)}, but with fuzzy set a term that matches nothing
+     * is corrected to the nearest product-name terms ("iphne" finds "iphone")
+     */
+    public List<ProductDTO> search(String query, int limit, boolean fuzzy) {
+        Set<String> terms = new LinkedHashSet<>(ProductTokenizer.tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list == null && fuzzy) {
+                    list = corrected(term);
+                }
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+
+            return rank(lists, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onCatalogLoaded(List<ProductDTO> products) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            nameTerms.clear();
+            totalNameLength = 0;
+            totalCategoryLength = 0;
+            totalDescriptionLength = 0;
+            for (ProductDTO product : products) {
+                index(product);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(ProductDTO product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            unindex(product.getId());
+            index(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Long productId) {
+        lock.writeLock().lock();
+        try {
+            unindex(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Intersect the lists and score each match with BM25F in the same pass,
+     * keeping the best {@code limit} in a heap; ties go to the lower product ID
+     */
+    private List<ProductDTO> rank(List<PostingList> lists, int limit) {
+        int n = documents.size();
+        int terms = lists.size();
+        PostingList[] sorted = lists.toArray(new PostingList[0]);
+        Arrays.sort(sorted, Comparator.comparingInt(PostingList::size));
+        double[] idf = new double[terms];
+        for (int l = 0; l < terms; l++) {
+            int df = sorted[l].size();
+            idf[l] = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+        }
+        double avgName = average(totalNameLength, n);
+        double avgCategory = average(totalCategoryLength, n);
+        double avgDescription = average(totalDescriptionLength, n);
+
+        PostingList smallest = sorted[0];
+        int[] cursors = new int[terms];
+        PriorityQueue<ScoredProduct> top = new PriorityQueue<>(Math.min(limit, smallest.size()) + 1, WORST_FIRST);
+
+        candidates:
+        for (int i = 0; i < smallest.size(); i++) {
+            long id = smallest.get(i);
+            cursors[0] = i;
+            for (int l = 1; l < terms; l++) {
+                cursors[l] = sorted[l].gallop(id, cursors[l]);
+                if (cursors[l] >= sorted[l].size()) {
+                    break candidates;
+                }
+                if (sorted[l].get(cursors[l]) != id) {
+                    continue candidates;
+                }
+            }
+
+            int lengths = (int) (smallest.payload(i) >>> 32);
+            double nameNorm = lengthNorm(lengths & SHORT_MASK, avgName);
+            double categoryNorm = lengthNorm((lengths >>> 8) & SHORT_MASK, avgCategory);
+            double descriptionNorm = lengthNorm((lengths >>> 16) & LONG_MASK, avgDescription);
+            double score = 0;
+            for (int l = 0; l < terms; l++) {
+                int tf = (int) sorted[l].payload(cursors[l]);
+                double weighted = NAME_BOOST * (tf & SHORT_MASK) / nameNorm
+                        + CATEGORY_BOOST * ((tf >>> 8) & SHORT_MASK) / categoryNorm
+                        + DESCRIPTION_BOOST * ((tf >>> 16) & LONG_MASK) / descriptionNorm;
+                score += idf[l] * weighted / (K1 + weighted);
+            }
+            if ((lengths & IN_STOCK_BIT) != 0) {
+                score *= IN_STOCK_BOOST;
+            }
+
+            if (top.size() < limit) {
+                top.offer(new ScoredProduct(id, score));
+            } else if (score > top.peek().score()) {
+                // An equal score keeps the lower ID, which is already in the heap
+                top.poll();
+                top.offer(new ScoredProduct(id, score));
+            }
+        }
+
+        List<ProductDTO> results = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            results.add(documents.get(top.poll().id()).product());
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    private static double lengthNorm(int length, double averageLength) {
+        return 1 - B + B * length / averageLength;
+    }
+
+    private static double average(long total, int count) {
+        return count == 0 || total == 0 ? 1 : (double) total / count;
+    }
+
+    private void index(ProductDTO product) {
+        long id = product.getId();
+        List<String> name = ProductTokenizer.tokenize(product.getName());
+        List<String> category = ProductTokenizer.tokenize(product.getCategory());
+        List<String> description = ProductTokenizer.tokenize(product.getDescription());
+        documents.put(id, new Document(product, name.size(), category.size(), description.size()));
+        totalNameLength += name.size();
+        totalCategoryLength += category.size();
+        totalDescriptionLength += description.size();
+
+        boolean inStock = product.getStock() != null && product.getStock() > 0;
+        long lengths = Math.min(name.size(), SHORT_MASK)
+                | Math.min(category.size(), SHORT_MASK) << 8
+                | Math.min(description.size(), LONG_MASK) << 16
+                | (inStock ? IN_STOCK_BIT : 0);
+
+        Map<String, int[]> frequencies = new LinkedHashMap<>();
+        name.forEach(term -> frequencies.computeIfAbsent(term, t -> new int[3])[0]++);
+        category.forEach(term -> frequencies.computeIfAbsent(term, t -> new int[3])[1]++);
+        description.forEach(term -> frequencies.computeIfAbsent(term, t -> new int[3])[2]++);
+        for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+            int[] tf = entry.getValue();
+            long payload = lengths << 32
+                    | Math.min(tf[0], SHORT_MASK)
+                    | Math.min(tf[1], SHORT_MASK) << 8
+                    | Math.min(tf[2], LONG_MASK) << 16;
+            postings.computeIfAbsent(entry.getKey(), t -> new PostingList()).add(id, payload);
+        }
+        new LinkedHashSet<>(name).forEach(nameTerms::add);
+    }
+
+    private void unindex(Long productId) {
+        Document previous = documents.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        totalNameLength -= previous.nameLength;
+        totalCategoryLength -= previous.categoryLength;
+        totalDescriptionLength -= previous.descriptionLength;
+        for (String term : termsOf(previous.product)) {
+            PostingList list = postings.get(term);
+            if (list != null && list.remove(productId) && list.size() == 0) {
+                postings.remove(term);
+            }
+        }
+        nameTermsOf(previous.product).forEach(nameTerms::remove);
+    }
+
+    /**
+     * Products containing any of the name terms closest to a misspelled term, or null if none is close
+     */
+    private PostingList corrected(String term) {
+        int maxEdits = maxEdits(term);
+        if (maxEdits == 0) {
+            return null;
+        }
+        List<PostingList> lists = new ArrayList<>();
+        for (String candidate : nameTerms.closest(term, maxEdits).keySet()) {
+            PostingList list = postings.get(candidate);
+            if (list != null) {
+                lists.add(list);
+            }
+        }
+        return lists.isEmpty() ? null : PostingList.union(lists);
+    }
+
+    /**
+     * Allowed typos grow with term length; terms of two characters or fewer must match exactly
+     */
+    static int maxEdits(String term) {
+        if (term.length() <= 2) {
+            return 0;
+        }
+        return term.length() <= 5 ? 1 : 2;
+    }
+
+    private static Set<String> nameTermsOf(ProductDTO product) {
+        return new LinkedHashSet<>(ProductTokenizer.tokenize(product.getName()));
+    }
+
+    private static Set<String> termsOf(ProductDTO product) {
+        Set<String> terms = new LinkedHashSet<>();
+        terms.addAll(ProductTokenizer.tokenize(product.getName()));
+        terms.addAll(ProductTokenizer.tokenize(product.getDescription()));
+        terms.addAll(ProductTokenizer.tokenize(product.getCategory()));
+        return terms;
+    }
+
+    private record Document(ProductDTO product, int nameLength, int categoryLength, int descriptionLength) {}
+
+    private record ScoredProduct(long id, double score) {}
+}
@@ -0,0 +1,357 @@
+package com.revshop.search;
+
+import com.revshop.catalog.ProductChangeListener;
+import com.revshop.dto.ProductDTO;
+import com.revshop.dto.ProductSuggestionDTO;
+import com.revshop.repository.OrderItemRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix autocomplete over normalized product names and categories, ranked by units sold.
+ *
+ * Phrases live in sorted maps, so a prefix is a contiguous key range. Short prefixes match
+ * huge ranges, so their top results are cached. A save that renames a product drops the cached
+ * prefixes of the phrases it touches; a sale re-ranks those cached lists in place, and a save
+ * that leaves name and category alone (a stock change) does not touch the cache at all.
+ */
+@Component
+public class ProductSuggester implements ProductChangeListener {
+
+    public static final int MAX_LIMIT = 20;
+
+    static final String PRODUCT = "PRODUCT";
+    static final String CATEGORY = "CATEGORY";
+
+    // Prefixes up to this length are cached (they are the ones that match large ranges)
+    private static final int MAX_CACHED_PREFIX = 4;
+    private static final int MAX_CACHED_PREFIXES = 20_000;
+
+    private static final Comparator<Phrase> BY_RANK = Comparator
+            .comparingLong((Phrase p) -> p.popularity)
+            .thenComparingInt(p -> p.productCount)
+            .thenComparing((Phrase p) -> p.key, Comparator.reverseOrder());
+
+    private final OrderItemRepository orderItemRepository;
+
+    private final TreeMap<String, Phrase> names = new TreeMap<>();
+    private final TreeMap<String, Phrase> categories = new TreeMap<>();
+    private final Map<Long, ProductRef> products = new HashMap<>();
+    private final Map<Long, Long> unitsSold = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final LinkedHashMap<String, List<ProductSuggestionDTO>> prefixCache =
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, List<ProductSuggestionDTO>> eldest) {
+                    return size() > MAX_CACHED_PREFIXES;
+                }
+            };
+
+    public ProductSuggester(OrderItemRepository orderItemRepository) {
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    /**
+     * Suggestions whose normalized text starts with the prefix, most popular first
+     */
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int size = Math.min(limit, MAX_LIMIT);
+        boolean cacheable = key.length() <= MAX_CACHED_PREFIX;
+
+        if (cacheable) {
+            List<ProductSuggestionDTO> cached;
+            synchronized (prefixCache) {
+                cached = prefixCache.get(key);
+            }
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached.size() > size ? cached.subList(0, size) : cached;
+            }
+            misses.incrementAndGet();
+        }
+
+        List<ProductSuggestionDTO> results;
+        lock.readLock().lock();
+        try {
+            // Cache the full MAX_LIMIT so any smaller limit can be served from it
+            results = topPhrases(key, cacheable ? MAX_LIMIT : size);
+            if (cacheable) {
+                // Still under the read lock, so no write can land between ranking and caching
+                synchronized (prefixCache) {
+                    prefixCache.put(key, results);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return results.size() > size ? results.subList(0, size) : results;
+    }
+
+    /**
+     * Add sold units to a product's popularity (called once an order is committed)
+     */
+    public void recordSale(Long productId, int quantity) {
+        if (productId == null || quantity <= 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            unitsSold.merge(productId, (long) quantity, Long::sum);
+            ProductRef ref = products.get(productId);
+            if (ref != null) {
+                addSale(names, ref.name, quantity);
+                addSale(categories, ref.category, quantity);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onCatalogLoaded(List<ProductDTO> catalog) {
+        Map<Long, Long> sales = new HashMap<>();
+        try {
+            for (Object[] row : orderItemRepository.sumQuantityByProduct()) {
+                if (row[0] != null && row[1] != null) {
+                    sales.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Could not load product popularity, ranking by product count only: " + e.getMessage());
+        }
+
+        lock.writeLock().lock();
+        try {
+            names.clear();
+            categories.clear();
+            products.clear();
+            unitsSold.clear();
+            unitsSold.putAll(sales);
+            for (ProductDTO product : catalog) {
+                add(product);
+            }
+            synchronized (prefixCache) {
+                prefixCache.clear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(ProductDTO product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (unchanged(products.get(product.getId()), product)) {
+                // Stock and price saves arrive on every checkout; they don't change any suggestion
+                return;
+            }
+            remove(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Long productId) {
+        lock.writeLock().lock();
+        try {
+            remove(productId);
+            unitsSold.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<ProductSuggestionDTO> topPhrases(String prefix, int size) {
+        PriorityQueue<Phrase> top = new PriorityQueue<>(size + 1, BY_RANK);
+        String end = prefix + Character.MAX_VALUE;
+        for (TreeMap<String, Phrase> phrases : List.of(names, categories)) {
+            for (Phrase phrase : phrases.subMap(prefix, true, end, false).values()) {
+                top.offer(phrase);
+                if (top.size() > size) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<ProductSuggestionDTO> results = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            results.add(suggestion(top.poll()));
+        }
+        // The heap pops the lowest rank first
+        Collections.reverse(results);
+        return results;
+    }
+
+    private void add(ProductDTO product) {
+        String name = normalize(product.getName());
+        String category = normalize(product.getCategory());
+        long sold = unitsSold.getOrDefault(product.getId(), 0L);
+        products.put(product.getId(), new ProductRef(name, category));
+        attach(names, name, product.getName(), PRODUCT, sold);
+        attach(categories, category, product.getCategory(), CATEGORY, sold);
+    }
+
+    private void remove(Long productId) {
+        ProductRef ref = products.remove(productId);
+        if (ref == null) {
+            return;
+        }
+        long sold = unitsSold.getOrDefault(productId, 0L);
+        detach(names, ref.name, sold);
+        detach(categories, ref.category, sold);
+    }
+
+    private void attach(TreeMap<String, Phrase> phrases, String key, String text, String type, long sold) {
+        if (key.isEmpty()) {
+            return;
+        }
+        Phrase phrase = phrases.computeIfAbsent(key, k -> new Phrase(k, type));
+        phrase.text = text.trim();
+        phrase.productCount++;
+        phrase.popularity += sold;
+        invalidatePrefixes(key);
+    }
+
+    private void detach(TreeMap<String, Phrase> phrases, String key, long sold) {
+        Phrase phrase = phrases.get(key);
+        if (phrase == null) {
+            return;
+        }
+        phrase.productCount--;
+        phrase.popularity -= sold;
+        if (phrase.productCount <= 0) {
+            phrases.remove(key);
+        }
+        invalidatePrefixes(key);
+    }
+
+    private boolean unchanged(ProductRef ref, ProductDTO product) {
+        return ref != null
+                && ref.name.equals(normalize(product.getName()))
+                && ref.category.equals(normalize(product.getCategory()))
+                && sameText(names, ref.name, product.getName())
+                && sameText(categories, ref.category, product.getCategory());
+    }
+
+    private static boolean sameText(TreeMap<String, Phrase> phrases, String key, String text) {
+        Phrase phrase = phrases.get(key);
+        return phrase == null || phrase.text.equals(text.trim());
+    }
+
+    private void addSale(TreeMap<String, Phrase> phrases, String key, long sold) {
+        Phrase phrase = phrases.get(key);
+        if (phrase == null) {
+            return;
+        }
+        phrase.popularity += sold;
+        synchronized (prefixCache) {
+            for (int length = 1; length <= Math.min(MAX_CACHED_PREFIX, key.length()); length++) {
+                String prefix = key.substring(0, length);
+                List<ProductSuggestionDTO> cached = prefixCache.get(prefix);
+                if (cached != null) {
+                    List<ProductSuggestionDTO> reranked = rerank(cached, phrase);
+                    if (reranked == null) {
+                        prefixCache.remove(prefix);
+                    } else {
+                        prefixCache.put(prefix, reranked);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A cached top list after the phrase's popularity went up. The phrase can only move up, so the
+     * new top is the best MAX_LIMIT of the cached phrases plus this one. A list shorter than
+     * MAX_LIMIT already holds every match. Returns a new list, since callers may still hold the
+     * old one; null if a cached entry no longer resolves to a phrase.
+     */
+    private List<ProductSuggestionDTO> rerank(List<ProductSuggestionDTO> cached, Phrase sold) {
+        List<Phrase> ranked = new ArrayList<>(cached.size() + 1);
+        ranked.add(sold);
+        for (ProductSuggestionDTO suggestion : cached) {
+            Phrase phrase = (PRODUCT.equals(suggestion.type()) ? names : categories).get(normalize(suggestion.text()));
+            if (phrase == null) {
+                return null;
+            }
+            if (phrase != sold) {
+                ranked.add(phrase);
+            }
+        }
+        ranked.sort(BY_RANK.reversed());
+        List<ProductSuggestionDTO> results = new ArrayList<>(Math.min(ranked.size(), MAX_LIMIT));
+        for (Phrase phrase : ranked.subList(0, Math.min(ranked.size(), MAX_LIMIT))) {
+            results.add(suggestion(phrase));
+        }
+        return results;
+    }
+
+    private static ProductSuggestionDTO suggestion(Phrase phrase) {
+        return new ProductSuggestionDTO(phrase.text, phrase.type, phrase.popularity, phrase.productCount);
+    }
+
+    private void invalidatePrefixes(String key) {
+        synchronized (prefixCache) {
+            for (int length = 1; length <= Math.min(MAX_CACHED_PREFIX, key.length()); length++) {
+                prefixCache.remove(key.substring(0, length));
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (prefixCache) {
+            stats.put("cachedPrefixes", prefixCache.size());
+        }
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    /**
+     * Lower-case terms separated by single spaces: "  iPhone-15  Pro " becomes "iphone 15 pro"
+     */
+    static String normalize(String text) {
+        return String.join(" ", ProductTokenizer.tokenize(text));
+    }
+
+    private static final class Phrase {
+        final String key;
+        final String type;
+        String text;
+        int productCount;
+        long popularity;
+
+        Phrase(String key, String type) {
+            this.key = key;
+            this.type = type;
+        }
+    }
+
+    private record ProductRef(String name, String category) {}
+}
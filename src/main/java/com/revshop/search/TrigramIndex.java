@@ -0,0 +1,142 @@
+package com.revshop.search;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram index over a vocabulary of terms, used to find the terms within a few edits of a misspelling.
+ * Each edit changes at most three trigrams, so a candidate must share enough trigrams with the
+ * query before the (bounded) edit distance is computed; the rest of the vocabulary is never touched.
+ */
+final class TrigramIndex {
+
+    // term -> number of products using it, so a term leaves the vocabulary with its last product
+    private final Map<String, Integer> terms = new HashMap<>();
+    private final Map<String, Set<String>> grams = new HashMap<>();
+
+    void add(String term) {
+        if (terms.merge(term, 1, Integer::sum) == 1) {
+            for (String gram : trigrams(term)) {
+                grams.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+            }
+        }
+    }
+
+    void remove(String term) {
+        Integer count = terms.get(term);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            terms.put(term, count - 1);
+            return;
+        }
+        terms.remove(term);
+        for (String gram : trigrams(term)) {
+            Set<String> matching = grams.get(gram);
+            if (matching != null && matching.remove(term) && matching.isEmpty()) {
+                grams.remove(gram);
+            }
+        }
+    }
+
+    void clear() {
+        terms.clear();
+        grams.clear();
+    }
+
+    /**
+     * Vocabulary terms at the smallest edit distance (up to maxEdits) from the term, with that distance.
+     * Candidates must share at least one trigram, so very short terms only match fairly close spellings.
+     */
+    Map<String, Integer> closest(String term, int maxEdits) {
+        Set<String> queryGrams = trigrams(term);
+        int minShared = Math.max(1, queryGrams.size() - 3 * maxEdits);
+
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            Set<String> matching = grams.get(gram);
+            if (matching == null) {
+                continue;
+            }
+            for (String candidate : matching) {
+                if (Math.abs(candidate.length() - term.length()) <= maxEdits) {
+                    shared.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+
+        Map<String, Integer> closest = new HashMap<>();
+        int best = maxEdits;
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            if (entry.getValue() < minShared) {
+                continue;
+            }
+            int distance = boundedDistance(term, entry.getKey(), best);
+            if (distance < best) {
+                best = distance;
+                closest.clear();
+            }
+            if (distance <= best) {
+                closest.put(entry.getKey(), distance);
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Trigrams of the term padded with '$' at both ends, so "ipad" gives $ip, ipa, pad, ad$
+     */
+    static Set<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    /**
+     * Levenshtein distance, or max + 1 as soon as it is known to exceed max.
+     * Only the diagonal band of width 2 * max + 1 is computed.
+     */
+    static int boundedDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int inf = max + 1;
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j <= max ? j : inf;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(b.length(), i + max);
+            current[0] = i <= max ? i : inf;
+            if (from > 1) {
+                current[from - 1] = inf;
+            }
+            int rowMin = current[0];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = Math.min(value, inf);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < b.length()) {
+                current[to + 1] = inf;
+            }
+            if (rowMin > max) {
+                return inf;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
@@ -1,89 +1,228 @@
 package com.revshop.service;
 
+import com.revshop.cache.ProductCache;
+import com.revshop.cart.CartBatchWriter;
+import com.revshop.cart.CartLine;
+import com.revshop.cart.CartStore;
+import com.revshop.cart.CartSummaryCache;
+import com.revshop.cart.CartUpserter;
+import com.revshop.dto.CartOperation;
+import com.revshop.dto.CartSummaryDTO;
+import com.revshop.dto.ProductDTO;
 import com.revshop.model.Cart;
-import com.revshop.model.Product;
+import com.revshop.money.Money;
 import com.revshop.repository.CartRepository;
-import com.revshop.repository.ProductRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 public class CartService {
 
+    public static final int MAX_BATCH_OPERATIONS = 200;
+
     private final CartRepository cartRepository;
-    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final CartStore cartStore;
+    private final CartSummaryCache cartSummaries;
+    private final CartUpserter cartUpserter;
+    private final CartBatchWriter cartBatchWriter;
 
     public CartService(CartRepository cartRepository,
-                       ProductRepository productRepository) {
+                       ProductCache productCache,
+                       CartStore cartStore,
+                       CartSummaryCache cartSummaries,
+                       CartUpserter cartUpserter,
+                       CartBatchWriter cartBatchWriter) {
         this.cartRepository = cartRepository;
-        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.cartStore = cartStore;
+        this.cartSummaries = cartSummaries;
+        this.cartUpserter = cartUpserter;
+        this.cartBatchWriter = cartBatchWriter;
     }
 
     public Cart addToCart(Long userId, Long productId, int quantity) {
         // Check if product exists
-        Product product = productRepository.findById(productId)
+        ProductDTO product = productCache.get(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
-        // Check if item already exists in cart
-        List<Cart> existingItems = cartRepository.findByUserIdAndProductId(userId, productId);
-        
-        if (!existingItems.isEmpty()) {
-            // Update quantity if item exists
-            Cart cartItem = existingItems.get(0);
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
-            cartItem.setTotalPrice(cartItem.getPrice() * cartItem.getQuantity());
-            return cartRepository.save(cartItem);
-        } else {
-            // Create new cart item
+        if (cartStore.isEnabled()) {
+            return cartStore.add(userId, productId, product.getName(), Money.of(product.getPrice()),
+                    imageUrlFor(product.getName()), quantity);
+        }
+
+        // One atomic statement; concurrent adds of the same product land on the same line
+        Money price = Money.of(product.getPrice());
+        LocalDateTime createdAt = LocalDateTime.now();
+        CartUpserter.Result result = cartUpserter.upsert(userId, productId, product.getName(), price,
+                imageUrlFor(product.getName()), quantity, createdAt);
+
+        if (result.inserted()) {
             Cart cartItem = new Cart();
+            cartItem.setId(result.cartId());
             cartItem.setUserId(userId);
             cartItem.setProductId(productId);
             cartItem.setProductName(product.getName());
             cartItem.setQuantity(quantity);
-            cartItem.setPrice(product.getPrice().doubleValue());
-            cartItem.setTotalPrice(product.getPrice().doubleValue() * quantity);
-            
-            // Set high-quality image URL based on product name
-            String productName = product.getName().toLowerCase();
-            String imageUrl;
-            if (productName.contains("macbook") || productName.contains("laptop")) {
-                imageUrl = "https://store.storeimages.cdn-apple.com/4982/as-images.apple.com/is/refurb-cosmetically-flawless-macbook-air-midnight-2023?wid=1144&hei=1144&fmt=jpeg&qlt=90&.v=1693078356000";
-            } else if (productName.contains("iphone") || productName.contains("phone")) {
-                imageUrl = "https://store.storeimages.cdn-apple.com/4982/as-images.apple.com/is/iphone-15-pro-finish-select-202309-6-1inch-naturaltitanium?wid=5120&hei=2880&fmt=webp&qlt=95&.v=1692923519600";
-            } else if (productName.contains("nike") || productName.contains("shoes")) {
-                imageUrl = "https://static.nike.com/a/images/t_PDP_864x963/f_auto,q_auto:eco/b5222c8e-5e6d-4173-a44e-4d4a8c1c9b0b/air-max-270-shoes.png";
-            } else if (productName.contains("sony") || productName.contains("headphone")) {
-                imageUrl = "https://www.sony.com/image/dam/global/wh-1000xm5/product-gallery/gallery1.png";
-            } else {
-                imageUrl = "https://images.unsplash.com/photo-1560472354-b33ff4b4c40?w=80&h=80&fit=crop&auto=format";
+            cartItem.setPrice(price);
+            cartItem.setTotalPrice(price.times(quantity));
+            cartItem.setImageUrl(imageUrlFor(product.getName()));
+            cartItem.setCreatedAt(createdAt);
+            cartSummaries.apply(userId, null, CartLine.of(cartItem));
+            return cartItem;
+        }
+
+        // The line existed and kept its price; report the units this call added
+        Cart cartItem = cartRepository.findById(result.cartId())
+                .orElseThrow(() -> new RuntimeException("Cart item not found"));
+        CartLine after = CartLine.of(cartItem);
+        cartSummaries.apply(userId, after.withQuantity(after.quantity() - quantity), after);
+        return cartItem;
+    }
+
+    /**
+     * Apply several add/update/remove operations to one user's cart at once and return the new cart.
+     * Products are looked up in one go; either every operation is applied or, if one is invalid, none.
+     * @throws IllegalArgumentException for an empty or oversized batch, or an invalid operation
+     */
+    public List<Cart> applyBatch(Long userId, List<CartOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("No cart operations given.");
+        }
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            throw new IllegalArgumentException("Too many cart operations in one request. Maximum allowed is " + MAX_BATCH_OPERATIONS + ".");
+        }
+
+        Set<Long> productIds = new HashSet<>();
+        for (CartOperation operation : operations) {
+            if (operation != null && operation.op() == CartOperation.Type.ADD && operation.productId() != null) {
+                productIds.add(operation.productId());
             }
-            cartItem.setImageUrl(imageUrl);
-            
-            return cartRepository.save(cartItem);
         }
+        Map<Long, ProductDTO> products = productCache.getAll(productIds);
+        LocalDateTime createdAt = LocalDateTime.now();
+        Function<Long, CartLine> newLine = productId -> {
+            ProductDTO product = products.get(productId);
+            return product == null ? null : new CartLine(null, userId, productId, product.getName(),
+                    imageUrlFor(product.getName()), 0, Money.of(product.getPrice()), createdAt);
+        };
+
+        if (cartStore.isEnabled()) {
+            return cartStore.applyBatch(userId, operations, newLine);
+        }
+        cartBatchWriter.apply(userId, operations, newLine);
+        return cartRepository.findByUserId(userId);
+    }
+
+    /**
+     * High-quality image URL based on product name
+     */
+    private static String imageUrlFor(String name) {
+        String productName = name.toLowerCase();
+        if (productName.contains("macbook") || productName.contains("laptop")) {
+            return "https://store.storeimages.cdn-apple.com/4982/as-images.apple.com/is/refurb-cosmetically-flawless-macbook-air-midnight-2023?wid=1144&hei=1144&fmt=jpeg&qlt=90&.v=1693078356000";
+        } else if (productName.contains("iphone") || productName.contains("phone")) {
+            return "https://store.storeimages.cdn-apple.com/4982/as-images.apple.com/is/iphone-15-pro-finish-select-202309-6-1inch-naturaltitanium?wid=5120&hei=2880&fmt=webp&qlt=95&.v=1692923519600";
+        } else if (productName.contains("nike") || productName.contains("shoes")) {
+            return "https://static.nike.com/a/images/t_PDP_864x963/f_auto,q_auto:eco/b5222c8e-5e6d-4173-a44e-4d4a8c1c9b0b/air-max-270-shoes.png";
+        } else if (productName.contains("sony") || productName.contains("headphone")) {
+            return "https://www.sony.com/image/dam/global/wh-1000xm5/product-gallery/gallery1.png";
+        }
+        return "https://images.unsplash.com/photo-1560472354-b33ff4b4c40?w=80&h=80&fit=crop&auto=format";
     }
 
     public List<Cart> getCartByUserId(Long userId) {
+        if (cartStore.isEnabled()) {
+            return cartStore.getCart(userId);
+        }
         return cartRepository.findByUserId(userId);
     }
 
     public void removeItem(Long cartId) {
-        cartRepository.deleteById(cartId);
+        if (cartStore.isEnabled()) {
+            cartStore.remove(cartId);
+            return;
+        }
+        cartRepository.findById(cartId).ifPresent(cartItem -> {
+            CartLine before = CartLine.of(cartItem);
+            cartRepository.delete(cartItem);
+            cartSummaries.apply(before.userId(), before, null);
+        });
+    }
+
+    /**
+     * Check out the user's cart so that each line is ordered at most once. The checkout gets a
+     * supplier of the cart's lines and must call it inside its transaction; the lines it got are
+     * removed from the cart when that transaction commits, and lines added meanwhile stay.
+     *
+     * Write-through, the supplier locks the cart rows and deletes them in the caller's transaction,
+     * so a concurrent checkout waits and then finds them gone, and a rollback puts them back.
+     * Write-behind, CartStore keeps the cart locked for the whole checkout.
+     */
+    public <T> T checkout(Long userId, Function<Supplier<List<Cart>>, T> checkout) {
+        if (cartStore.isEnabled()) {
+            return cartStore.checkout(userId, lines -> checkout.apply(() -> lines));
+        }
+        return checkout.apply(() -> takeLines(userId));
+    }
+
+    private List<Cart> takeLines(Long userId) {
+        List<Cart> lines = cartRepository.findByUserIdForUpdate(userId);
+        if (lines.isEmpty()) {
+            return lines;
+        }
+        List<CartLine> taken = lines.stream().map(CartLine::of).toList();
+        cartRepository.deleteAllByIdInBatch(taken.stream().map(CartLine::id).toList());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                taken.forEach(line -> cartSummaries.apply(userId, line, null));
+            }
+        });
+        return lines;
     }
 
     public void clearCart(Long userId) {
+        if (cartStore.isEnabled()) {
+            cartStore.clear(userId);
+            return;
+        }
         cartRepository.deleteByUserId(userId);
+        cartSummaries.clear(userId);
+    }
+
+    /**
+     * Line count, units and subtotal for the cart badge, without loading cart rows
+     */
+    public CartSummaryDTO getCartSummary(Long userId) {
+        return cartSummaries.get(userId, () -> cartStore.isEnabled()
+                ? cartStore.summarize(userId)
+                : cartRepository.findSummaryByUserId(userId));
     }
 
     public Cart updateQuantity(Long cartId, int quantity) {
+        if (cartStore.isEnabled()) {
+            return cartStore.updateQuantity(cartId, quantity);
+        }
         Cart cartItem = cartRepository.findById(cartId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found"));
         
+        CartLine before = CartLine.of(cartItem);
         cartItem.setQuantity(quantity);
-        cartItem.setTotalPrice(cartItem.getPrice() * quantity);
+        cartItem.setTotalPrice(cartItem.getPrice().times(quantity));
         
-        return cartRepository.save(cartItem);
+        Cart saved = cartRepository.save(cartItem);
+        cartSummaries.apply(before.userId(), before, CartLine.of(saved));
+        return saved;
     }
 }
\ No newline at end of file
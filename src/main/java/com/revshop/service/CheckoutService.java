@@ -0,0 +1,268 @@
+package com.revshop.service;
+
+import com.revshop.catalog.ProductChangePublisher;
+import com.revshop.dto.ProductDTO;
+import com.revshop.dto.ShippingAddress;
+import com.revshop.inventory.FlashSaleStock;
+import com.revshop.model.Cart;
+import com.revshop.model.Order;
+import com.revshop.model.OrderItem;
+import com.revshop.money.Money;
+import com.revshop.order.OutOfStockException;
+import com.revshop.repository.ProductRepository;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Checkout of the buyer's stored cart. Prices and the total come from the products table, not
+ * the client, and stock is reserved with one conditional UPDATE per line, sent as a single batch:
+ * a line that would take stock below zero updates no row and the whole checkout rolls back.
+ * No rows are locked before the decrement, so concurrent checkouts of the same products only
+ * wait on each other for the rest of the order insert. Products in a flash sale are taken
+ * from their FlashSaleStock shards instead.
+ */
+@Service
+public class CheckoutService {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final String RESERVE_SQL = "UPDATE products SET stock = stock - ? WHERE product_id = ? AND stock >= ?";
+
+    private final CartService cartService;
+    private final OrderService orderService;
+    private final ProductRepository productRepository;
+    private final ProductChangePublisher changePublisher;
+    private final FlashSaleStock flashSaleStock;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public CheckoutService(CartService cartService, OrderService orderService, ProductRepository productRepository,
+                           ProductChangePublisher changePublisher, FlashSaleStock flashSaleStock,
+                           JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.cartService = cartService;
+        this.orderService = orderService;
+        this.productRepository = productRepository;
+        this.changePublisher = changePublisher;
+        this.flashSaleStock = flashSaleStock;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Turn the buyer's cart into an order and remove the ordered lines from the cart.
+     * Concurrent checkouts of one cart are serialized, so the cart is ordered once.
+     * @throws IllegalArgumentException if the cart is empty, has a line with a quantity below one
+     *         or holds a product that no longer exists
+     * @throws OutOfStockException if any line cannot be covered by current stock
+     */
+    public Order checkoutCart(Long buyerId, ShippingAddress shippingAddress) {
+        return checkoutCart(buyerId, shippingAddress, order -> {});
+    }
+
+    /**
+     * Checkout that also hands the order to beforeCommit inside the transaction that places it,
+     * e.g. to store an Idempotency-Key with it. beforeCommit runs once per attempt.
+     */
+    public Order checkoutCart(Long buyerId, ShippingAddress shippingAddress, Consumer<Order> beforeCommit) {
+        return cartService.checkout(buyerId, takeLines -> {
+            boolean lockShards = false;
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return placeOrder(buyerId, shippingAddress, takeLines, lockShards, beforeCommit);
+                } catch (ShardMissException e) {
+                    // No single flash-sale shard could cover a line; lock the shards and take from several
+                    lockShards = true;
+                } catch (SaleStartedException e) {
+                    // A flash sale started after this attempt's snapshot; the next one takes from its shards
+                } catch (PessimisticLockingFailureException e) {
+                    // Timed out waiting for a row or chosen as a deadlock victim; nothing was written
+                    if (attempt >= MAX_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        });
+    }
+
+    private Order placeOrder(Long buyerId, ShippingAddress shippingAddress, Supplier<List<Cart>> takeLines, boolean lockShards,
+                             Consumer<Order> beforeCommit) {
+        return transactionTemplate.execute(status -> {
+            List<Cart> cart = takeLines.get();
+            Map<Long, Integer> quantities = quantities(cart);
+
+            Map<Long, ProductDTO> products = new HashMap<>();
+            for (ProductDTO product : productRepository.findProductDTOsByIds(quantities.keySet())) {
+                products.put(product.getId(), product);
+            }
+            for (Long productId : quantities.keySet()) {
+                if (!products.containsKey(productId)) {
+                    throw new IllegalArgumentException("Product not found with ID: " + productId + ". Please remove it from your cart.");
+                }
+            }
+
+            Set<Long> flashSale = reserveStock(quantities, lockShards);
+            List<OrderItem> items = orderItems(cart, products);
+            Order order = orderService.placeOrder(newOrder(buyerId, shippingAddress, items), items);
+            // Flash-sale stock reaches products.stock, and the views, through FlashSaleStock's reconcile
+            products.keySet().removeAll(flashSale);
+            publishStock(products);
+            beforeCommit.accept(order);
+            return order;
+        });
+    }
+
+    /**
+     * Quantity per product, in product ID order. A cart holds one line per product; reserving in
+     * product ID order keeps concurrent checkouts from locking the same rows in opposite orders.
+     */
+    private static Map<Long, Integer> quantities(List<Cart> cart) {
+        if (cart.isEmpty()) {
+            throw new IllegalArgumentException("No items in cart. Please add items to your cart and try again.");
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (Cart line : cart) {
+            // A zero or negative quantity would add stock back and price the order below zero
+            if (line.getQuantity() == null || line.getQuantity() < 1) {
+                throw new IllegalArgumentException("Invalid quantity for " + line.getProductName() + ". Please update your cart and try again.");
+            }
+            quantities.put(line.getProductId(), line.getQuantity());
+        }
+        return quantities;
+    }
+
+    /**
+     * Reserve every line's quantity, from the products row or, for flash-sale products, from their shards
+     * @param lockShards take flash-sale stock under a lock on all shards rather than from one shard
+     * @return the flash-sale products among the lines
+     */
+    private Set<Long> reserveStock(Map<Long, Integer> quantities, boolean lockShards) {
+        Map<Long, int[]> flashSale = flashSaleStock.snapshot(quantities.keySet());
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>();
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            if (!flashSale.containsKey(line.getKey())) {
+                lines.add(line);
+            }
+        }
+
+        List<Long> shortProducts = new ArrayList<>();
+        if (!lines.isEmpty()) {
+            int[][] counts = jdbcTemplate.batchUpdate(RESERVE_SQL, lines, lines.size(), (ps, line) -> {
+                ps.setInt(1, line.getValue());
+                ps.setLong(2, line.getKey());
+                ps.setInt(3, line.getValue());
+            });
+            for (int i = 0; i < lines.size(); i++) {
+                if (counts[0][i] == 0) {
+                    shortProducts.add(lines.get(i).getKey());
+                }
+            }
+            // The snapshot may predate a sale whose start waited on these rows. Its shards hold the
+            // stock now, and reconcile would overwrite our decrement, so start over.
+            List<Long> productIds = lines.stream().map(Map.Entry::getKey).toList();
+            if (!flashSaleStock.inSaleLocked(productIds).isEmpty()) {
+                throw new SaleStartedException();
+            }
+        }
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            int[] shards = flashSale.get(line.getKey());
+            if (shards == null) {
+                continue;
+            }
+            if (lockShards) {
+                if (!flashSaleStock.reserveLocked(line.getKey(), line.getValue())) {
+                    shortProducts.add(line.getKey());
+                }
+            } else if (!flashSaleStock.reserveFromOneShard(line.getKey(), line.getValue(), shards)) {
+                throw new ShardMissException();
+            }
+        }
+        if (!shortProducts.isEmpty()) {
+            // Thrown inside the transaction, so the decrements that did succeed are rolled back too
+            throw new OutOfStockException(shortProducts);
+        }
+        return flashSale.keySet();
+    }
+
+    /**
+     * Tell the in-memory views about the new stock levels once the order commits.
+     * The rows are locked by our UPDATE, so the values read here are exact.
+     */
+    private void publishStock(Map<Long, ProductDTO> products) {
+        if (products.isEmpty()) {
+            // Only flash-sale lines; an empty IN () is not valid SQL on MySQL
+            return;
+        }
+        namedJdbcTemplate.query("SELECT product_id, stock FROM products WHERE product_id IN (:ids)",
+                Map.of("ids", products.keySet()), rs -> {
+                    ProductDTO product = products.get(rs.getLong("product_id"));
+                    product.setStock(rs.getInt("stock"));
+                    changePublisher.productSaved(product);
+                });
+    }
+
+    private static Order newOrder(Long buyerId, ShippingAddress shippingAddress, List<OrderItem> items) {
+        Money total = Money.ZERO;
+        for (OrderItem item : items) {
+            total = total.plus(item.getPrice().times(item.getQuantity()));
+        }
+        Order order = new Order();
+        order.setBuyerId(buyerId);
+        order.setTotalAmount(total);
+        order.setStatus("PLACED");
+        order.setShippingFullName(shippingAddress.getFullName());
+        order.setShippingAddress(shippingAddress.getAddress());
+        order.setShippingCity(shippingAddress.getCity());
+        order.setShippingState(shippingAddress.getState());
+        order.setShippingZipCode(shippingAddress.getZipCode());
+        order.setShippingCountry(shippingAddress.getCountry());
+        order.setShippingPhone(shippingAddress.getPhone());
+        return order;
+    }
+
+    private static List<OrderItem> orderItems(List<Cart> cart, Map<Long, ProductDTO> products) {
+        List<OrderItem> items = new ArrayList<>(cart.size());
+        for (Cart line : cart) {
+            ProductDTO product = products.get(line.getProductId());
+            OrderItem item = new OrderItem();
+            item.setProductId(product.getId());
+            item.setProductName(product.getName());
+            item.setImageUrl(line.getImageUrl());
+            item.setQuantity(line.getQuantity());
+            item.setPrice(Money.of(product.getPrice()));
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * Rolls back a checkout attempt whose flash-sale line missed its shard
+     */
+    private static final class ShardMissException extends RuntimeException {
+        ShardMissException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Rolls back a checkout attempt that took regular stock from a product whose flash sale has started
+     */
+    private static final class SaleStartedException extends RuntimeException {
+        SaleStartedException() {
+            super(null, null, false, false);
+        }
+    }
+}
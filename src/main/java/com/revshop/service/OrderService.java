@@ -5,10 +5,14 @@ import com.revshop.dto.OrderDetailsDTO;
 import com.revshop.dto.OrderItemDTO;
 import com.revshop.model.Order;
 import com.revshop.model.OrderItem;
+import com.revshop.order.OrderIdGenerator;
 import com.revshop.repository.OrderItemRepository;
 import com.revshop.repository.OrderRepository;
+import com.revshop.search.ProductSuggester;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.ArrayList;
@@ -18,21 +22,56 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
+    private final ProductSuggester productSuggester;
+    private final OrderIdGenerator orderIdGenerator;
 
-    public OrderService(OrderRepository orderRepository, OrderItemRepository orderItemRepository) {
+    public OrderService(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+                        ProductSuggester productSuggester, OrderIdGenerator orderIdGenerator) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
+        this.productSuggester = productSuggester;
+        this.orderIdGenerator = orderIdGenerator;
     }
 
+    /**
+     * Persist an order and its items in one transaction. The order ID and number are assigned
+     * up front and item IDs come from the id_pool table, so nothing is written until commit:
+     * one INSERT for the order and one JDBC batch for the items.
+     */
+    @Transactional
     public Order placeOrder(Order order, List<OrderItem> items) {
+        if (order.getId() == null) {
+            order.setId(orderIdGenerator.nextId());
+        }
+        if (order.getOrderNumber() == null) {
+            order.setOrderNumber(OrderIdGenerator.orderNumber(order.getId()));
+        }
         Order savedOrder = orderRepository.save(order);
         for (OrderItem item : items) {
-            item.setOrderId(savedOrder.getId());
-            orderItemRepository.save(item);
+            item.setOrder(savedOrder);
         }
+        orderItemRepository.saveAll(items);
+        recordSales(items);
         return savedOrder;
     }
 
+    /**
+     * Feed sold units into suggestion popularity, after commit when a transaction is active
+     */
+    private void recordSales(List<OrderItem> items) {
+        Runnable record = () -> items.forEach(item -> productSuggester.recordSale(item.getProductId(), item.getQuantity()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record.run();
+                }
+            });
+        } else {
+            record.run();
+        }
+    }
+
     @Transactional(readOnly = true)
     public List<OrderHistoryDTO> getOrdersByBuyer(Long buyerId) {
         return orderRepository.findOrderHistoryByBuyer(buyerId);
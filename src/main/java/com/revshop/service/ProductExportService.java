@@ -0,0 +1,74 @@
+package com.revshop.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.revshop.dto.ProductDTO;
+import com.revshop.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams the catalog as NDJSON (one JSON product per line) or as one JSON array
+ * Heap use is constant: rows go from the JDBC cursor straight to the output stream
+ */
+@Service
+public class ProductExportService {
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+
+    public ProductExportService(ProductRepository productRepository, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write every product to the stream and return how many were written
+     */
+    @Transactional(readOnly = true)
+    public long exportProducts(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<ProductDTO> products = productRepository.streamAllProductDTOs();
+             SequenceWriter writer = objectMapper.writer()
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .withRootValueSeparator("\n")
+                     .writeValues(out)) {
+            Iterator<ProductDTO> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                count++;
+            }
+        }
+        if (count > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        return count;
+    }
+
+    /**
+     * Write every product as a single JSON array, the shape of the full-list endpoints, and return how many were written
+     */
+    @Transactional(readOnly = true)
+    public long writeProductArray(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<ProductDTO> products = productRepository.streamAllProductDTOs();
+             SequenceWriter writer = objectMapper.writer()
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .writeValuesAsArray(out)) {
+            Iterator<ProductDTO> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                count++;
+            }
+        }
+        out.flush();
+        return count;
+    }
+}
@@ -0,0 +1,240 @@
+package com.revshop.service;
+
+import com.revshop.catalog.ProductChangePublisher;
+import com.revshop.dto.ProductDTO;
+import com.revshop.dto.ProductImportResult;
+import com.revshop.model.Product;
+import com.revshop.model.User;
+import com.revshop.repository.UserRepository;
+import com.revshop.util.CsvReader;
+import com.revshop.util.ProductValidator;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk product import for seller onboarding
+ *
+ * Products use IDENTITY keys, which turns off Hibernate insert batching, so rows are written
+ * with plain JDBC batches instead (one multi-row INSERT per chunk with rewriteBatchedStatements).
+ * Each chunk commits in its own transaction: a failing chunk does not undo the ones before it.
+ */
+@Service
+public class ProductImportService {
+
+    public static final int MAX_ROWS = 100_000;
+    static final int CHUNK_SIZE = 1000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (name, description, price, stock, category, image_url, low_stock_threshold, seller_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final ProductChangePublisher changePublisher;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                UserRepository userRepository, ProductChangePublisher changePublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userRepository = userRepository;
+        this.changePublisher = changePublisher;
+    }
+
+    /**
+     * Validate and insert products for one seller
+     * @throws IllegalArgumentException if the seller does not exist or too many rows are submitted
+     */
+    public ProductImportResult importProducts(Long sellerId, List<Product> products) {
+        if (products.size() > MAX_ROWS) {
+            throw new IllegalArgumentException("Too many products in one import. Maximum allowed is " + MAX_ROWS + ".");
+        }
+        User seller = userRepository.findById(sellerId)
+                .orElseThrow(() -> new IllegalArgumentException("Seller not found with ID: " + sellerId));
+
+        long start = System.currentTimeMillis();
+        ProductImportResult result = new ProductImportResult();
+        result.setReceived(products.size());
+
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            String error = product == null ? "Product row is empty." : ProductValidator.validate(product);
+            if (error != null) {
+                result.addError(i + 1, error);
+                continue;
+            }
+            chunk.add(new Row(i + 1, product));
+            if (chunk.size() == CHUNK_SIZE) {
+                insertChunk(chunk, seller, result);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, seller, result);
+        }
+
+        result.setDurationMs(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * Import products from CSV with a header row
+     * Columns: name, description, price, stock, category, imageUrl, lowStockThreshold (any order)
+     */
+    public ProductImportResult importCsv(Long sellerId, Reader csv) throws IOException {
+        List<List<String>> rows = CsvReader.read(csv);
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("CSV is empty. The first line must be a header row.");
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = rows.get(0);
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(normalizeHeader(header.get(i)), i);
+        }
+
+        List<Product> products = new ArrayList<>(rows.size() - 1);
+        Map<Integer, String> parseErrors = new HashMap<>();
+        for (int r = 1; r < rows.size(); r++) {
+            try {
+                products.add(toProduct(rows.get(r), columns));
+            } catch (NumberFormatException e) {
+                products.add(null);
+                parseErrors.put(r, e.getMessage());
+            }
+        }
+
+        ProductImportResult result = importProducts(sellerId, products);
+        if (!parseErrors.isEmpty()) {
+            // Parse failures were submitted as empty rows; report the real reason instead
+            List<ProductImportResult.RowError> errors = new ArrayList<>();
+            for (ProductImportResult.RowError error : result.getErrors()) {
+                String parseError = parseErrors.get(error.row());
+                errors.add(parseError != null ? new ProductImportResult.RowError(error.row(), parseError) : error);
+            }
+            result.setErrors(errors);
+        }
+        return result;
+    }
+
+    private void insertChunk(List<Row> chunk, User seller, ProductImportResult result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> ids = batchInsert(chunk, seller.getId());
+                for (int i = 0; i < chunk.size(); i++) {
+                    Product product = chunk.get(i).product();
+                    // Delivered to the in-memory views once this chunk commits
+                    changePublisher.productSaved(new ProductDTO(ids.get(i), product.getName(), product.getDescription(),
+                            product.getPrice(), product.getStock(), product.getCategory(), product.getImageUrl(),
+                            product.getLowStockThreshold(), seller.getId(), seller.getName()));
+                }
+            });
+            result.setImported(result.getImported() + chunk.size());
+        } catch (Exception e) {
+            System.err.println("❌ Error importing product chunk: " + e.getMessage());
+            for (Row row : chunk) {
+                result.addError(row.number(), "Failed to save product: " + e.getMessage());
+            }
+        }
+    }
+
+    private List<Long> batchInsert(List<Row> chunk, Long sellerId) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (Row row : chunk) {
+                    Product product = row.product();
+                    statement.setString(1, product.getName());
+                    statement.setString(2, product.getDescription());
+                    statement.setBigDecimal(3, product.getPrice());
+                    statement.setInt(4, product.getStock());
+                    statement.setString(5, product.getCategory());
+                    statement.setString(6, product.getImageUrl());
+                    if (product.getLowStockThreshold() != null) {
+                        statement.setInt(7, product.getLowStockThreshold());
+                    } else {
+                        statement.setNull(7, Types.INTEGER);
+                    }
+                    statement.setLong(8, sellerId);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                List<Long> ids = new ArrayList<>(chunk.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                if (ids.size() != chunk.size()) {
+                    throw new IllegalStateException("Expected " + chunk.size() + " generated IDs but got " + ids.size());
+                }
+                return ids;
+            }
+        });
+    }
+
+    private static Product toProduct(List<String> row, Map<String, Integer> columns) {
+        Product product = new Product();
+        product.setName(column(row, columns, "name"));
+        product.setDescription(column(row, columns, "description"));
+        product.setCategory(column(row, columns, "category"));
+        product.setImageUrl(column(row, columns, "imageurl"));
+
+        String price = column(row, columns, "price");
+        product.setPrice(price != null ? parseDecimal(price, "price") : null);
+        String stock = column(row, columns, "stock");
+        product.setStock(stock != null ? parseInteger(stock, "stock") : null);
+        String threshold = column(row, columns, "lowstockthreshold");
+        product.setLowStockThreshold(threshold != null ? parseInteger(threshold, "low stock threshold") : null);
+        return product;
+    }
+
+    private static BigDecimal parseDecimal(String value, String column) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Invalid " + column + ": '" + value + "' is not a number.");
+        }
+    }
+
+    private static Integer parseInteger(String value, String column) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Invalid " + column + ": '" + value + "' is not a whole number.");
+        }
+    }
+
+    private static String column(List<String> row, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= row.size()) {
+            return null;
+        }
+        String value = row.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // "Image URL", "image_url" and "imageUrl" all map to "imageurl"
+    private static String normalizeHeader(String header) {
+        return header.replaceAll("[^A-Za-z0-9]", "").toLowerCase(Locale.ROOT);
+    }
+
+    private record Row(int number, Product product) {}
+}
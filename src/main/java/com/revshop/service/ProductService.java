@@ -1,15 +1,38 @@
 package com.revshop.service;
 
+import com.revshop.cache.ProductCache;
+import com.revshop.catalog.CategoryCatalog;
+import com.revshop.catalog.ProductChangePublisher;
+import com.revshop.dto.CategoryCountDTO;
 import com.revshop.dto.ProductDTO;
+import com.revshop.dto.ProductFacetResultDTO;
+import com.revshop.dto.ProductPageDTO;
+import com.revshop.dto.ProductSuggestionDTO;
+import com.revshop.dto.SellerSummaryDTO;
+import com.revshop.inventory.FlashSaleStock;
+import com.revshop.inventory.LowStockTracker;
+import com.revshop.inventory.SellerInventoryAggregates;
 import com.revshop.model.Product;
 import com.revshop.model.User;
 import com.revshop.repository.ProductRepository;
 import com.revshop.repository.UserRepository;
+import com.revshop.search.ProductColumnStore;
+import com.revshop.search.ProductFacetIndex;
+import com.revshop.search.ProductFacetQuery;
+import com.revshop.search.ProductSearchIndex;
+import com.revshop.search.ProductSuggester;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -17,12 +40,40 @@ import java.util.stream.Collectors;
 @Transactional
 public class ProductService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ProductChangePublisher changePublisher;
+    private final ProductSearchIndex searchIndex;
+    private final ProductCache productCache;
+    private final ProductSuggester productSuggester;
+    private final ProductFacetIndex facetIndex;
+    private final LowStockTracker lowStockTracker;
+    private final CategoryCatalog categoryCatalog;
+    private final ProductColumnStore columnStore;
+    private final SellerInventoryAggregates sellerAggregates;
+    private final FlashSaleStock flashSaleStock;
 
-    public ProductService(ProductRepository productRepository, UserRepository userRepository) {
+    public ProductService(ProductRepository productRepository, UserRepository userRepository,
+                          ProductChangePublisher changePublisher, ProductSearchIndex searchIndex,
+                          ProductCache productCache, ProductSuggester productSuggester,
+                          ProductFacetIndex facetIndex, LowStockTracker lowStockTracker,
+                          CategoryCatalog categoryCatalog, ProductColumnStore columnStore,
+                          SellerInventoryAggregates sellerAggregates, FlashSaleStock flashSaleStock) {
         this.productRepository = productRepository;
         this.userRepository = userRepository;
+        this.changePublisher = changePublisher;
+        this.searchIndex = searchIndex;
+        this.productCache = productCache;
+        this.productSuggester = productSuggester;
+        this.facetIndex = facetIndex;
+        this.lowStockTracker = lowStockTracker;
+        this.categoryCatalog = categoryCatalog;
+        this.columnStore = columnStore;
+        this.sellerAggregates = sellerAggregates;
+        this.flashSaleStock = flashSaleStock;
     }
 
     /**
@@ -55,10 +106,7 @@ public class ProductService {
      */
     public List<ProductDTO> getAllProducts() {
         try {
-            List<Product> products = productRepository.findAll();
-            return products.stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
+            return productRepository.findAllProductDTOs();
         } catch (Exception e) {
             System.err.println("❌ Error in getAllProducts: " + e.getMessage());
             e.printStackTrace();
@@ -66,6 +114,91 @@ public class ProductService {
         }
     }
 
+    /**
+     * Get one page of products in ID order using keyset pagination
+     * Cost stays flat however deep the client pages, unlike OFFSET
+     * @param cursor nextCursor from the previous page, or null for the first page
+     * @param size requested page size, capped at MAX_PAGE_SIZE
+     */
+    @Transactional(readOnly = true)
+    public ProductPageDTO getProductsPage(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long afterId = decodeCursor(cursor);
+
+        // Fetch one extra row to find out whether another page exists
+        List<ProductDTO> products = productRepository.findProductDTOPageAfter(afterId, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = products.size() > pageSize;
+        List<ProductDTO> items = hasMore ? products.subList(0, pageSize) : products;
+
+        String nextCursor = hasMore ? encodeCursor(items.get(items.size() - 1).getId()) : null;
+        return new ProductPageDTO(items, nextCursor);
+    }
+
+    private static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return Long.parseLong(decoded);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Snapshot of the whole catalog for the in-memory indexes
+     * Unlike getAllProducts(), errors are propagated instead of returning an empty list
+     */
+    @Transactional(readOnly = true)
+    public List<ProductDTO> getCatalogSnapshot() {
+        return productRepository.findAllProductDTOs();
+    }
+
+    /**
+     * Typeahead suggestions for product names and categories starting with the prefix
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        return productSuggester.suggest(prefix, limit);
+    }
+
+    /**
+     * Search products by name, description and category
+     * Uses the inverted index; falls back to a full scan until the index is loaded
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ProductDTO> searchProducts(String query, int limit) {
+        return searchProducts(query, limit, false);
+    }
+
+    /**
+     * Search with optional typo tolerance; fuzzy matching needs the index, so the fallback scan is exact
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ProductDTO> searchProducts(String query, int limit, boolean fuzzy) {
+        if (searchIndex.isReady()) {
+            return searchIndex.search(query, limit, fuzzy);
+        }
+
+        if (limit <= 0) {
+            return List.of();
+        }
+        return productRepository.searchProductDTOs(escapeLike(query), PageRequest.of(0, limit));
+    }
+
+    /**
+     * Escape LIKE wildcards so "50%" or "usb_c" match literally
+     */
+    private static String escapeLike(String keyword) {
+        return keyword.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
     /**
      * Get products by seller ID using CORRECT JPA relationship
      * This is the permanent fix for the seller product fetching issue
@@ -78,12 +211,8 @@ public class ProductService {
                 return List.of();
             }
             
-            // Use CORRECT JPQL query that navigates the relationship properly
-            List<Product> products = productRepository.findBySellerId(sellerId);
-            
-            return products.stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
+            // Single query with the seller joined in (no per-product seller lookups)
+            return productRepository.findProductDTOsBySellerId(sellerId);
         } catch (Exception e) {
             System.err.println("❌ Error in getProductsBySeller: " + e.getMessage());
             e.printStackTrace();
@@ -91,6 +220,103 @@ public class ProductService {
         }
     }
 
+    /**
+     * Inventory totals for a seller's dashboard
+     * Served from the maintained aggregates once they are loaded, otherwise one aggregate query
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SellerSummaryDTO getSellerSummary(Long sellerId) {
+        if (sellerAggregates.isReady()) {
+            return sellerAggregates.getSummary(sellerId);
+        }
+        Object[] row = productRepository.summarizeBySellerId(sellerId).get(0);
+        BigDecimal value = row[2] instanceof BigDecimal decimal ? decimal : new BigDecimal(row[2].toString());
+        return new SellerSummaryDTO(sellerId, ((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                value.setScale(2, RoundingMode.HALF_UP), ((Number) row[3]).longValue(), ((Number) row[4]).longValue());
+    }
+
+    /**
+     * A seller's products at or below their low-stock threshold
+     * Served from the low-stock tracker once it is loaded
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ProductDTO> getLowStockProducts(Long sellerId) {
+        if (lowStockTracker.isReady()) {
+            return lowStockTracker.getLowStockProducts(sellerId);
+        }
+        return productRepository.findLowStockProductDTOsBySellerId(sellerId);
+    }
+
+    /**
+     * Categories in use with their product counts, by name
+     * Served from the category catalog once it is loaded
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<CategoryCountDTO> getCategoryCounts() {
+        if (categoryCatalog.isReady()) {
+            return categoryCatalog.getCategoryCounts();
+        }
+        return CategoryCatalog.merge(productRepository.countProductsByCategory());
+    }
+
+    /**
+     * Products priced within [minPrice, maxPrice] (either bound may be null), sorted by price
+     * Scanned from the column store; only the returned page is hydrated, through the product cache
+     * @throws IllegalStateException while the catalog is still loading
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ProductDTO> getProductsByPrice(BigDecimal minPrice, BigDecimal maxPrice, String category, Long sellerId,
+                                               boolean inStockOnly, boolean descending, int offset, int limit) {
+        if (!columnStore.isReady()) {
+            throw new IllegalStateException("Product catalog is still loading, try again shortly");
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative");
+        }
+        long minCents = minPrice == null ? 0 : ProductColumnStore.toCents(minPrice);
+        long maxCents = maxPrice == null ? Long.MAX_VALUE : ProductColumnStore.toCents(maxPrice);
+        long[] ids = columnStore.findByPrice(minCents, maxCents, category, sellerId, inStockOnly, descending,
+                offset, Math.min(limit, MAX_PAGE_SIZE));
+
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        Map<Long, ProductDTO> products = productCache.getAll(idList);
+        List<ProductDTO> results = new ArrayList<>(ids.length);
+        for (Long id : idList) {
+            ProductDTO product = products.get(id);
+            if (product != null) {
+                results.add(product);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Get products in a category (case-insensitive exact match)
+     * Served from the facet index once it is loaded
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ProductDTO> getProductsByCategory(String category) {
+        if (facetIndex.isReady()) {
+            return facetIndex.findByCategory(category);
+        }
+        return productRepository.findProductDTOsByCategory(category);
+    }
+
+    /**
+     * Filter by category, price band, seller and stock, with facet counts
+     * @throws IllegalStateException while the catalog is still loading
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProductFacetResultDTO filterProducts(ProductFacetQuery query) {
+        if (!facetIndex.isReady()) {
+            throw new IllegalStateException("Product catalog is still loading, try again shortly");
+        }
+        return facetIndex.query(query);
+    }
+
     /**
      * Legacy method for backward compatibility
      * @deprecated Use getAllProducts() instead
@@ -115,16 +341,19 @@ public class ProductService {
      */
     @Deprecated
     public Product addProduct(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        changePublisher.productSaved(convertToDTO(savedProduct));
+        return savedProduct;
     }
 
     /**
      * Get product by ID as DTO
+     * Served from the product cache; only misses reach the database
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<ProductDTO> getProductById(Long productId) {
         try {
-            Optional<Product> product = productRepository.findById(productId);
-            return product.map(this::convertToDTO);
+            return productCache.get(productId);
         } catch (Exception e) {
             System.err.println("❌ Error in getProductById: " + e.getMessage());
             e.printStackTrace();
@@ -153,7 +382,9 @@ public class ProductService {
             }
             
             Product savedProduct = productRepository.save(product);
-            return convertToDTO(savedProduct);
+            ProductDTO savedDTO = convertToDTO(savedProduct);
+            changePublisher.productSaved(savedDTO);
+            return savedDTO;
         } catch (Exception e) {
             System.err.println("❌ Error in addProductDTO: " + e.getMessage());
             e.printStackTrace();
@@ -172,13 +403,20 @@ public class ProductService {
             existingProduct.setName(productDTO.getName());
             existingProduct.setDescription(productDTO.getDescription());
             existingProduct.setPrice(productDTO.getPrice());
-            existingProduct.setStock(productDTO.getStock());
+            if (flashSaleStock.isActive(productId)) {
+                // The sale's shards hold the real stock and reconcile writes it back, so keep what is stored
+                System.out.println("⚡ Product " + productId + " is in a flash sale, ignoring submitted stock");
+            } else {
+                existingProduct.setStock(productDTO.getStock());
+            }
             existingProduct.setCategory(productDTO.getCategory());
             existingProduct.setImageUrl(productDTO.getImageUrl());
             existingProduct.setLowStockThreshold(productDTO.getLowStockThreshold());
             
             Product updatedProduct = productRepository.save(existingProduct);
-            return convertToDTO(updatedProduct);
+            ProductDTO updatedDTO = convertToDTO(updatedProduct);
+            changePublisher.productSaved(updatedDTO);
+            return updatedDTO;
         } catch (Exception e) {
             System.err.println("❌ Error in updateProduct: " + e.getMessage());
             e.printStackTrace();
@@ -195,6 +433,7 @@ public class ProductService {
                 throw new RuntimeException("Product not found with ID: " + productId);
             }
             productRepository.deleteById(productId);
+            changePublisher.productDeleted(productId);
         } catch (Exception e) {
             System.err.println("❌ Error in deleteProduct: " + e.getMessage());
             e.printStackTrace();
@@ -202,6 +441,21 @@ public class ProductService {
         }
     }
 
+    /**
+     * Split the product's stock into shards so concurrent checkouts stop queueing on its row
+     */
+    public void startFlashSale(Long productId, int shards) {
+        flashSaleStock.enable(productId, shards);
+    }
+
+    /**
+     * Fold the shards back into the product's stock
+     * @return stock left after the sale
+     */
+    public int endFlashSale(Long productId) {
+        return flashSaleStock.disable(productId);
+    }
+
     /**
      * Update product image URL
      */
@@ -212,6 +466,7 @@ public class ProductService {
             
             product.setImageUrl(imageUrl);
             productRepository.save(product);
+            changePublisher.productSaved(convertToDTO(product));
             
             System.out.println("✅ Updated image for product " + productId + ": " + imageUrl);
         } catch (Exception e) {
@@ -0,0 +1,74 @@
+package com.revshop.util;
+
+import com.revshop.model.Product;
+
+import java.math.BigDecimal;
+
+/**
+ * Validation rules for new products, shared by single add and bulk import
+ * Seller checks are left to the caller, which knows how the seller is supplied
+ */
+public final class ProductValidator {
+
+    private static final BigDecimal MAX_PRICE = new BigDecimal("1000000");
+
+    private ProductValidator() {}
+
+    /**
+     * @return a user-facing error message, or null if the product is valid
+     */
+    public static String validate(Product product) {
+        // Validate product name
+        if (product.getName() == null || product.getName().trim().isEmpty()) {
+            return "Product name is required. Please enter a descriptive name for your product.";
+        }
+        if (product.getName().trim().length() < 2) {
+            return "Product name must be at least 2 characters long.";
+        }
+        if (product.getName().trim().length() > 100) {
+            return "Product name is too long. Maximum 100 characters allowed.";
+        }
+
+        // Validate description
+        if (product.getDescription() == null || product.getDescription().trim().isEmpty()) {
+            return "Product description is required. Please describe your product to help customers understand what you're selling.";
+        }
+        if (product.getDescription().trim().length() > 1000) {
+            return "Product description is too long. Maximum 1000 characters allowed.";
+        }
+
+        // Validate price
+        if (product.getPrice() == null || product.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+            return "Product price must be greater than 0. Please set a valid selling price.";
+        }
+        if (product.getPrice().compareTo(MAX_PRICE) > 0) {
+            return "Product price is too high. Maximum price is ₹1,000,000.";
+        }
+
+        // Validate stock
+        if (product.getStock() == null || product.getStock() < 0) {
+            return "Stock quantity cannot be negative. Please enter a valid stock number.";
+        }
+        if (product.getStock() > 10000) {
+            return "Stock quantity is too high. Maximum allowed is 10,000 items.";
+        }
+
+        // Validate low stock threshold if provided
+        if (product.getLowStockThreshold() != null && product.getLowStockThreshold() < 0) {
+            return "Low stock threshold cannot be negative. Please enter a valid number or leave it empty to use default (5).";
+        }
+        if (product.getLowStockThreshold() != null && product.getLowStockThreshold() > 1000) {
+            return "Low stock threshold is too high. Maximum allowed is 1,000 items.";
+        }
+
+        // Validate category
+        if (product.getCategory() == null || product.getCategory().trim().isEmpty()) {
+            return "Product category is required. Please select a category for your product.";
+        }
+        if (product.getCategory().trim().length() > 50) {
+            return "Category name is too long. Maximum 50 characters allowed.";
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,118 @@
+package com.revshop.cache;
+
+import com.revshop.dto.ProductDTO;
+import com.revshop.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductCache(productRepository, 2, 300);
+    }
+
+    @Test
+    void hotReadsDoNotHitTheDatabase() {
+        when(productRepository.findProductDTOById(1L)).thenReturn(Optional.of(product(1L, "Phone")));
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Phone", cache.get(1L).orElseThrow().getName());
+        }
+
+        verify(productRepository, times(1)).findProductDTOById(1L);
+        assertEquals(99L, cache.getStats().get("hits"));
+        assertEquals(1L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondMaxSize() {
+        when(productRepository.findProductDTOById(anyLong()))
+                .thenAnswer(call -> Optional.of(product(call.getArgument(0), "P")));
+
+        cache.get(1L);
+        cache.get(2L);
+        cache.get(1L);
+        cache.get(3L); // evicts 2, the least recently used
+
+        cache.get(1L);
+        cache.get(2L);
+        verify(productRepository, times(2)).findProductDTOById(2L);
+        verify(productRepository, times(1)).findProductDTOById(1L);
+        assertTrue((Long) cache.getStats().get("sizeEvictions") >= 1);
+    }
+
+    @Test
+    void writeReplacesCachedProduct() {
+        when(productRepository.findProductDTOById(1L)).thenReturn(Optional.of(product(1L, "Old")));
+        cache.get(1L);
+
+        cache.onProductSaved(product(1L, "New"));
+        assertEquals("New", cache.get(1L).orElseThrow().getName());
+
+        cache.onProductDeleted(1L);
+        when(productRepository.findProductDTOById(1L)).thenReturn(Optional.empty());
+        assertTrue(cache.get(1L).isEmpty());
+    }
+
+    @Test
+    void loadRacingWithAWriteIsNotCached() {
+        // The write commits while the old row is being read
+        when(productRepository.findProductDTOById(1L)).thenAnswer(call -> {
+            cache.invalidate(1L);
+            return Optional.of(product(1L, "Stale"));
+        }).thenReturn(Optional.of(product(1L, "Fresh")));
+
+        assertEquals("Stale", cache.get(1L).orElseThrow().getName());
+        assertEquals("Fresh", cache.get(1L).orElseThrow().getName());
+    }
+
+    @Test
+    void writesToOtherProductsDoNotSpoilALoad() {
+        // Product 1 is saved (a checkout's stock update) while product 2 is being read
+        when(productRepository.findProductDTOById(2L)).thenAnswer(call -> {
+            cache.onProductSaved(product(1L, "Phone"));
+            return Optional.of(product(2L, "Watch"));
+        });
+
+        assertEquals("Watch", cache.get(2L).orElseThrow().getName());
+        assertEquals("Watch", cache.get(2L).orElseThrow().getName());
+        verify(productRepository, times(1)).findProductDTOById(2L);
+    }
+
+    @Test
+    void getAllLoadsMissesInOneQuery() {
+        when(productRepository.findProductDTOById(1L)).thenReturn(Optional.of(product(1L, "Cached")));
+        cache.get(1L);
+        when(productRepository.findProductDTOsByIds(anyCollection()))
+                .thenReturn(List.of(product(2L, "Two"), product(3L, "Three")));
+
+        Map<Long, ProductDTO> products = cache.getAll(List.of(1L, 2L, 3L, 2L));
+
+        assertEquals(3, products.size());
+        verify(productRepository, times(1)).findProductDTOsByIds(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(2L, 3L))));
+    }
+
+    private static ProductDTO product(Long id, String name) {
+        return new ProductDTO(id, name, "", new BigDecimal("10.00"), 5, "Electronics", null, 5, 1L, "Seller");
+    }
+}
@@ -0,0 +1,270 @@
+package com.revshop.cart;
+
+import com.revshop.dto.CartOperation;
+import com.revshop.dto.CartSummaryDTO;
+import com.revshop.model.Cart;
+import com.revshop.model.Product;
+import com.revshop.model.User;
+import com.revshop.money.Money;
+import com.revshop.repository.CartRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+class CartStoreTest {
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @TempDir
+    Path journalDir;
+
+    private User buyer;
+    private Product phone;
+    private Product laptop;
+
+    @BeforeEach
+    void setUp() {
+        buyer = new User();
+        buyer.setName("Buyer");
+        buyer.setEmail("buyer" + System.nanoTime() + "@revshop.com");
+        buyer.setPassword("secret");
+        buyer.setRole("BUYER");
+        entityManager.persist(buyer);
+        phone = new Product("Phone", "", new BigDecimal("199.99"), 10, "Electronics", buyer);
+        laptop = new Product("Laptop", "", new BigDecimal("999.00"), 10, "Electronics", buyer);
+        entityManager.persist(phone);
+        entityManager.persist(laptop);
+        entityManager.flush();
+    }
+
+    @Test
+    void servesChangesFromMemoryAndFlushesLatestState() {
+        CartStore store = startStore();
+        Cart phoneLine = store.add(buyer.getId(), phone.getId(), "Phone", Money.ofMinor(19999), null, 1);
+        store.add(buyer.getId(), phone.getId(), "Phone", Money.ofMinor(19999), null, 2);
+        Cart laptopLine = store.add(buyer.getId(), laptop.getId(), "Laptop", Money.ofMinor(99900), null, 1);
+        store.updateQuantity(phoneLine.getId(), 5);
+        store.remove(laptopLine.getId());
+
+        List<Cart> cart = store.getCart(buyer.getId());
+        assertEquals(1, cart.size());
+        assertEquals(5, cart.get(0).getQuantity());
+        assertEquals(Money.ofMinor(99995), cart.get(0).getTotalPrice());
+        assertEquals(0, rowCount());
+
+        // Five changes to two rows: the phone is inserted once with its final quantity, the laptop never
+        assertEquals(1, store.flush());
+        assertEquals(1, rowCount());
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT quantity FROM cart WHERE cart_id = ?", Integer.class, phoneLine.getId()));
+        assertEquals(0, store.getStats().get("pendingChanges"));
+        assertEquals(0, store.getStats().get("journalSegments"));
+
+        store.updateQuantity(phoneLine.getId(), 2);
+        store.clear(buyer.getId());
+        assertEquals(1, store.flush());
+        assertEquals(0, rowCount());
+    }
+
+    @Test
+    void loadsExistingCartsAndKeepsAllocatingNewIds() {
+        CartStore first = startStore();
+        Cart line = first.add(buyer.getId(), phone.getId(), "Phone", Money.ofMinor(19999), null, 1);
+        first.flush();
+
+        CartStore second = startStore();
+        List<Cart> cart = second.getCart(buyer.getId());
+        assertEquals(List.of(line.getId()), cart.stream().map(Cart::getId).toList());
+
+        Cart added = second.add(buyer.getId(), laptop.getId(), "Laptop", Money.ofMinor(99900), null, 1);
+        assertTrue(added.getId() > line.getId());
+        second.updateQuantity(line.getId(), 3);
+        assertEquals(2, second.flush());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT quantity FROM cart WHERE cart_id = ?", Integer.class, line.getId()));
+    }
+
+    @Test
+    void replaysJournalLeftByACrash() throws Exception {
+        CartStore crashed = startStore();
+        Cart kept = crashed.add(buyer.getId(), phone.getId(), "Phone", Money.ofMinor(19999), "phone.png", 2);
+        Cart dropped = crashed.add(buyer.getId(), laptop.getId(), "Laptop", Money.ofMinor(99900), null, 1);
+        crashed.remove(dropped.getId());
+        assertEquals(0, rowCount());
+        try (var files = Files.list(journalDir)) {
+            assertEquals(1, files.count());
+        }
+
+        // Never flushed or stopped: the next store finds the journal and applies it
+        CartStore restarted = startStore();
+        assertEquals(1, rowCount());
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM cart WHERE cart_id = ?", kept.getId());
+        assertEquals(2, ((Number) row.get("QUANTITY")).intValue());
+        assertEquals(0, new BigDecimal("399.98").compareTo((BigDecimal) row.get("TOTAL_PRICE")));
+        assertEquals("phone.png", row.get("IMAGE_URL"));
+        assertEquals(0, restarted.getStats().get("journalSegments"));
+    }
+
+    @Test
+    void summarizesLoadedCartsFromMemoryAndOthersFromTheTable() {
+        CartStore first = startStore();
+        first.add(buyer.getId(), phone.getId(), "Phone", Money.ofMinor(19999), null, 2);
+        first.add(buyer.getId(), laptop.getId(), "Laptop", Money.ofMinor(99900), null, 1);
+        CartSummaryDTO expected = new CartSummaryDTO(buyer.getId(), 2, 3, Money.ofMinor(139898));
+        assertEquals(expected, first.summarize(buyer.getId()));
+        first.flush();
+
+        assertEquals(expected, startStore().summarize(buyer.getId()));
+        assertEquals(CartSummaryDTO.empty(-1L), startStore().summarize(-1L));
+    }
+
+    @Test
+    void appliesABatchAsOneChangeSetOrNotAtAll() {
+        CartStore store = startStore();
+        Cart phoneLine = store.add(buyer.getId(), phone.getId(), "Phone", Money.ofMinor(19999), null, 1);
+        store.flush();
+        Function<Long, CartLine> newLine = productId -> productId.equals(laptop.getId())
+                ? new CartLine(null, buyer.getId(), productId, "Laptop", null, 0, Money.ofMinor(99900), LocalDateTime.now())
+                : null;
+
+        assertThrows(IllegalArgumentException.class, () -> store.applyBatch(buyer.getId(),
+                List.of(CartOperation.update(phoneLine.getId(), 4), CartOperation.add(-1L, 1)), newLine));
+        assertEquals(1, store.getCart(buyer.getId()).get(0).getQuantity());
+
+        List<Cart> cart = store.applyBatch(buyer.getId(), List.of(
+                CartOperation.update(phoneLine.getId(), 4),
+                CartOperation.add(laptop.getId(), 1),
+                CartOperation.add(laptop.getId(), 1)), newLine);
+        assertEquals(2, cart.size());
+        assertEquals(new CartSummaryDTO(buyer.getId(), 2, 6, Money.ofMinor(279796)), store.summarize(buyer.getId()));
+        assertEquals(2, store.flush());
+        assertEquals(2, rowCount());
+
+        store.applyBatch(buyer.getId(), List.of(CartOperation.remove(phoneLine.getId())), newLine);
+        assertEquals(1, store.flush());
+        assertEquals(1, rowCount());
+    }
+
+    @Test
+    void checkoutHoldsTheCartAndRemovesOnlyTheLinesItOrdered() throws Exception {
+        CartStore store = startStore();
+        Cart phoneLine = store.add(buyer.getId(), phone.getId(), "Phone", Money.ofMinor(19999), null, 2);
+        CountDownLatch checkingOut = new CountDownLatch(1);
+        CountDownLatch finishCheckout = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        Future<List<Long>> ordered = pool.submit(() -> store.checkout(buyer.getId(), lines -> {
+            checkingOut.countDown();
+            try {
+                finishCheckout.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return lines.stream().map(Cart::getId).toList();
+        }));
+        checkingOut.await();
+        Future<Cart> added = pool.submit(() -> store.add(buyer.getId(), laptop.getId(), "Laptop", Money.ofMinor(99900), null, 1));
+        Thread.sleep(100);
+        assertFalse(added.isDone());
+
+        finishCheckout.countDown();
+        assertEquals(List.of(phoneLine.getId()), ordered.get());
+        Cart laptopLine = added.get();
+        pool.shutdown();
+
+        // The line added during the checkout was not part of it and stays
+        assertEquals(List.of(laptopLine.getId()), store.getCart(buyer.getId()).stream().map(Cart::getId).toList());
+        assertThrows(IllegalStateException.class, () -> store.checkout(buyer.getId(), lines -> {
+            throw new IllegalStateException("payment failed");
+        }));
+        assertEquals(1, store.getCart(buyer.getId()).size());
+    }
+
+    @Test
+    void changesToDifferentCartsRunInParallelAndAllReachTheJournal() throws Exception {
+        int users = 8;
+        int addsPerUser = 40;
+        List<User> buyers = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setName("Buyer " + i);
+            user.setEmail("buyer" + i + "-" + System.nanoTime() + "@revshop.com");
+            user.setPassword("secret");
+            user.setRole("BUYER");
+            entityManager.persist(user);
+            buyers.add(user);
+        }
+        entityManager.flush();
+
+        CartStore crashed = startStore(true);
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        for (User user : buyers) {
+            done.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < addsPerUser; i++) {
+                    Product product = i % 2 == 0 ? phone : laptop;
+                    crashed.add(user.getId(), product.getId(), product.getName(), Money.ofMinor(100), null, 1);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : done) {
+            future.get();
+        }
+        pool.shutdown();
+
+        // Never flushed: every acknowledged change has to come back from the journal
+        startStore(true);
+        for (User user : buyers) {
+            assertEquals(List.of(addsPerUser / 2, addsPerUser / 2), jdbcTemplate.queryForList(
+                    "SELECT quantity FROM cart WHERE user_id = ? ORDER BY product_id", Integer.class, user.getId()));
+        }
+    }
+
+    private CartStore startStore() {
+        return startStore(false);
+    }
+
+    private CartStore startStore(boolean journalSync) {
+        CartStore store = new CartStore(cartRepository, new CartSummaryCache(100), jdbcTemplate, transactionManager, CartStore.WRITE_BEHIND,
+                journalDir.toString(), journalSync, 3_600_000, 30);
+        store.start();
+        return store;
+    }
+
+    private int rowCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart WHERE user_id = ?", Integer.class, buyer.getId());
+    }
+}
@@ -0,0 +1,66 @@
+package com.revshop.cart;
+
+import com.revshop.dto.CartSummaryDTO;
+import com.revshop.money.Money;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartSummaryCacheTest {
+
+    private final CartSummaryCache cache = new CartSummaryCache(100);
+
+    @Test
+    void loadsOnceThenAppliesMutations() {
+        AtomicInteger loads = new AtomicInteger();
+        CartSummaryDTO loaded = cache.get(7L, () -> {
+            loads.incrementAndGet();
+            return new CartSummaryDTO(7L, 1, 2, Money.ofMinor(1000));
+        });
+        assertEquals(1, loaded.lineCount());
+
+        CartLine phone = line(1L, 2, 500);
+        cache.apply(7L, phone, phone.withQuantity(5));
+        cache.apply(7L, null, line(2L, 1, 1999));
+
+        CartSummaryDTO summary = cache.get(7L, () -> fail("should be cached"));
+        assertEquals(2, summary.lineCount());
+        assertEquals(6, summary.unitCount());
+        assertEquals(Money.ofMinor(4499), summary.subtotal());
+
+        cache.apply(7L, line(2L, 1, 1999), null);
+        cache.apply(7L, phone.withQuantity(5), null);
+        assertEquals(CartSummaryDTO.empty(7L), cache.get(7L, () -> fail("should be cached")));
+        assertEquals(1, loads.get());
+        assertEquals(2L, cache.getStats().get("hits"));
+    }
+
+    @Test
+    void doesNotCacheALoadThatRacedWithAMutation() {
+        CartSummaryDTO stale = cache.get(7L, () -> {
+            cache.apply(7L, null, line(1L, 1, 100));
+            return CartSummaryDTO.empty(7L);
+        });
+        assertEquals(0, stale.lineCount());
+
+        CartSummaryDTO fresh = cache.get(7L, () -> new CartSummaryDTO(7L, 1, 1, Money.ofMinor(100)));
+        assertEquals(1, fresh.lineCount());
+        assertEquals(1, cache.get(7L, () -> fail("should be cached")).lineCount());
+    }
+
+    @Test
+    void clearLeavesAnEmptySummary() {
+        cache.get(7L, () -> new CartSummaryDTO(7L, 3, 9, Money.ofMinor(9000)));
+        cache.clear(7L);
+        cache.clear(8L);
+        assertEquals(CartSummaryDTO.empty(7L), cache.get(7L, () -> fail("should be cached")));
+        assertEquals(CartSummaryDTO.empty(8L), cache.get(8L, () -> fail("should be cached")));
+    }
+
+    private static CartLine line(Long id, int quantity, long priceMinor) {
+        return new CartLine(id, 7L, id, "P" + id, null, quantity, Money.ofMinor(priceMinor), LocalDateTime.now());
+    }
+}
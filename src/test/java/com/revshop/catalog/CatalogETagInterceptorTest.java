@@ -0,0 +1,70 @@
+package com.revshop.catalog;
+
+import com.revshop.controller.ProductController;
+import com.revshop.dto.ProductDTO;
+import com.revshop.dto.ProductPageDTO;
+import com.revshop.service.ProductExportService;
+import com.revshop.service.ProductImportService;
+import com.revshop.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CatalogETagInterceptorTest {
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+    private final ProductChangePublisher publisher = new ProductChangePublisher(List.of(), catalogVersion);
+    private final ProductService productService = mock(ProductService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        when(productService.getProductsPage(any(), anyInt())).thenReturn(new ProductPageDTO(List.of(), null));
+        ProductController controller = new ProductController(productService, mock(ProductExportService.class),
+                mock(ProductImportService.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .addInterceptors(new CatalogETagInterceptor(catalogVersion))
+                .build();
+    }
+
+    @Test
+    void unchangedCatalogAnswers304WithoutRunningTheController() throws Exception {
+        String etag = mockMvc.perform(get("/api/products/page"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/products/page").header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        verify(productService, times(1)).getProductsPage(any(), anyInt());
+    }
+
+    @Test
+    void productSaveChangesTheETag() throws Exception {
+        String before = catalogVersion.etag();
+        ProductDTO product = new ProductDTO();
+        product.setId(1L);
+        publisher.productSaved(product);
+
+        assertNotEquals(before, catalogVersion.etag());
+        mockMvc.perform(get("/api/products/page").header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.etag()));
+    }
+}
@@ -0,0 +1,56 @@
+package com.revshop.catalog;
+
+import com.revshop.dto.CategoryCountDTO;
+import com.revshop.dto.ProductDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryCatalogTest {
+
+    private CategoryCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new CategoryCatalog();
+        catalog.onCatalogLoaded(List.of(
+                product(1L, "Electronics"),
+                product(2L, "electronics"),
+                product(3L, "Books"),
+                product(4L, null)
+        ));
+    }
+
+    @Test
+    void countsCategoriesCaseInsensitively() {
+        assertEquals(List.of(new CategoryCountDTO("Books", 1), new CategoryCountDTO("Electronics", 2)),
+                catalog.getCategoryCounts());
+    }
+
+    @Test
+    void followsProductWrites() {
+        List<CategoryCountDTO> before = catalog.getCategoryCounts();
+        assertSame(before, catalog.getCategoryCounts());
+
+        catalog.onProductSaved(product(3L, "Garden"));
+        catalog.onProductSaved(product(5L, "ELECTRONICS"));
+        catalog.onProductDeleted(1L);
+
+        assertEquals(List.of(new CategoryCountDTO("Electronics", 2), new CategoryCountDTO("Garden", 1)),
+                catalog.getCategoryCounts());
+    }
+
+    @Test
+    void mergesGroupedRows() {
+        List<Object[]> rows = List.of(new Object[]{"Toys", 3L}, new Object[]{"toys", 2L}, new Object[]{" ", 1L});
+        assertEquals(List.of(new CategoryCountDTO("Toys", 5)), CategoryCatalog.merge(rows));
+    }
+
+    private static ProductDTO product(Long id, String category) {
+        return new ProductDTO(id, "P" + id, "", new BigDecimal("10.00"), 5, category, null, 5, 1L, "Seller");
+    }
+}
@@ -2,6 +2,7 @@ package com.revshop.controller;
 
 import com.revshop.dto.ProductDTO;
 import com.revshop.model.Product;
+import com.revshop.service.ProductExportService;
 import com.revshop.service.ProductService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -9,8 +10,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
@@ -25,28 +29,27 @@ public class ProductControllerTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ProductExportService productExportService;
+
     @InjectMocks
     private ProductController productController;
 
     @Test
-    public void testGetAllProducts_Success() {
+    public void testGetAllProducts_Success() throws Exception {
         // Arrange
-        ProductDTO testProduct = new ProductDTO();
-        testProduct.setId(1L);
-        testProduct.setName("Test Product");
-        testProduct.setPrice(new BigDecimal("99.99"));
-        
-        List<ProductDTO> testProducts = Arrays.asList(testProduct);
-        when(productService.getAllProducts()).thenReturn(testProducts);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        when(productExportService.writeProductArray(out)).thenReturn(1L);
 
         // Act
-        ResponseEntity<List<ProductDTO>> response = productController.getAllProducts();
+        ResponseEntity<StreamingResponseBody> response = productController.getAllProducts();
+        response.getBody().writeTo(out);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        verify(productService, times(1)).getAllProducts();
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        verify(productExportService, times(1)).writeProductArray(out);
+        verify(productService, never()).getAllProducts();
     }
 
     @Test
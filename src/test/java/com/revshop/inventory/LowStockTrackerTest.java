@@ -0,0 +1,60 @@
+package com.revshop.inventory;
+
+import com.revshop.dto.ProductDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LowStockTrackerTest {
+
+    private LowStockTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new LowStockTracker();
+        tracker.onCatalogLoaded(List.of(
+                product(1L, 2, 5, 10L),
+                product(2L, 50, 5, 10L),
+                product(3L, 5, 5, 20L),
+                product(4L, 0, null, 20L)
+        ));
+    }
+
+    @Test
+    void tracksProductsAtOrBelowTheirThreshold() {
+        assertEquals(List.of(1L), ids(tracker.getLowStockProducts(10L)));
+        assertEquals(List.of(3L), ids(tracker.getLowStockProducts(20L)));
+        assertTrue(tracker.getLowStockProducts(99L).isEmpty());
+        assertEquals(2, tracker.count());
+    }
+
+    @Test
+    void followsStockChanges() {
+        tracker.onProductSaved(product(2L, 4, 5, 10L));
+        tracker.onProductSaved(product(1L, 20, 5, 10L));
+        assertEquals(List.of(2L), ids(tracker.getLowStockProducts(10L)));
+
+        tracker.onProductSaved(product(3L, 1, 5, 20L));
+        assertEquals(1, ids(tracker.getLowStockProducts(20L)).size());
+        assertEquals(1, tracker.getLowStockProducts(20L).get(0).getStock());
+
+        tracker.onProductDeleted(3L);
+        assertTrue(tracker.getLowStockProducts(20L).isEmpty());
+
+        assertEquals(1L, tracker.getStats().get("enteredLowStock"));
+        assertEquals(1L, tracker.getStats().get("leftLowStock"));
+        assertEquals(1, tracker.getStats().get("lowStockProducts"));
+    }
+
+    private static ProductDTO product(Long id, int stock, Integer threshold, Long sellerId) {
+        return new ProductDTO(id, "P" + id, "", new BigDecimal("10.00"), stock, "Books", null, threshold, sellerId, "Seller");
+    }
+
+    private static List<Long> ids(List<ProductDTO> products) {
+        return products.stream().map(ProductDTO::getId).toList();
+    }
+}
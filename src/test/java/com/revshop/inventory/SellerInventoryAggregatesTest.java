@@ -0,0 +1,69 @@
+package com.revshop.inventory;
+
+import com.revshop.dto.ProductDTO;
+import com.revshop.dto.SellerSummaryDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SellerInventoryAggregatesTest {
+
+    private SellerInventoryAggregates aggregates;
+
+    @BeforeEach
+    void setUp() {
+        aggregates = new SellerInventoryAggregates();
+        aggregates.onCatalogLoaded(List.of(
+                product(1L, "10.00", 2, 5, 10L),
+                product(2L, "2.50", 40, 5, 10L),
+                product(3L, "99.99", 0, null, 10L),
+                product(4L, "1.00", 7, 5, 20L)
+        ));
+    }
+
+    @Test
+    void summarizesEachSeller() {
+        SellerSummaryDTO summary = aggregates.getSummary(10L);
+        assertEquals(3, summary.getProductCount());
+        assertEquals(42, summary.getUnitsInStock());
+        assertEquals(new BigDecimal("120.00"), summary.getInventoryValue());
+        assertEquals(1, summary.getLowStockCount());
+        assertEquals(1, summary.getOutOfStockCount());
+
+        SellerSummaryDTO empty = aggregates.getSummary(99L);
+        assertEquals(0, empty.getProductCount());
+        assertEquals(new BigDecimal("0.00"), empty.getInventoryValue());
+    }
+
+    @Test
+    void appliesWritesIncrementally() {
+        aggregates.onProductSaved(product(2L, "2.50", 3, 5, 10L));
+        aggregates.onProductSaved(product(3L, "99.99", 1, null, 10L));
+        aggregates.onProductSaved(product(5L, "5.00", 0, 5, 10L));
+        aggregates.onProductDeleted(1L);
+
+        SellerSummaryDTO summary = aggregates.getSummary(10L);
+        assertEquals(3, summary.getProductCount());
+        assertEquals(4, summary.getUnitsInStock());
+        assertEquals(new BigDecimal("107.49"), summary.getInventoryValue());
+        assertEquals(2, summary.getLowStockCount());
+        assertEquals(1, summary.getOutOfStockCount());
+    }
+
+    @Test
+    void movesProductsBetweenSellers() {
+        aggregates.onProductSaved(product(4L, "1.00", 7, 5, 10L));
+
+        assertEquals(0, aggregates.getSummary(20L).getProductCount());
+        assertEquals(4, aggregates.getSummary(10L).getProductCount());
+        assertEquals(49, aggregates.getSummary(10L).getUnitsInStock());
+    }
+
+    private static ProductDTO product(Long id, String price, int stock, Integer threshold, Long sellerId) {
+        return new ProductDTO(id, "P" + id, "", new BigDecimal(price), stock, "Books", null, threshold, sellerId, "Seller");
+    }
+}
@@ -0,0 +1,67 @@
+package com.revshop.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revshop.dto.CheckoutRequest;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void totalsAreExact() {
+        Money price = Money.of(new BigDecimal("0.10"));
+        Money total = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            total = total.plus(price);
+        }
+        assertEquals(Money.ofMinor(100), total);
+        assertEquals(Money.ofMinor(5997), Money.of(new BigDecimal("19.99")).times(3));
+        assertEquals(Money.ofMinor(-5), Money.ofMinor(10).minus(Money.ofMinor(15)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).times(2));
+    }
+
+    @Test
+    void roundsHalfUpToCents() {
+        assertEquals(1000, Money.of(new BigDecimal("9.995")).minorUnits());
+        assertEquals(999, Money.of(new BigDecimal("9.994")).minorUnits());
+        assertEquals(1200, Money.of(new BigDecimal("12")).minorUnits());
+        assertNull(Money.of(null));
+    }
+
+    @Test
+    void formatsWithTwoFractionDigits() {
+        assertEquals("19.99", Money.ofMinor(1999).toString());
+        assertEquals("0.05", Money.ofMinor(5).toString());
+        assertEquals("-0.05", Money.ofMinor(-5).toString());
+        assertEquals("120.00", Money.ofMinor(12000).toString());
+        assertEquals(new BigDecimal("19.99"), Money.ofMinor(1999).toBigDecimal());
+    }
+
+    @Test
+    void writesAndReadsJsonNumbers() throws Exception {
+        assertEquals("{\"total\":59.97}", mapper.writeValueAsString(Map.of("total", Money.ofMinor(5997))));
+
+        CheckoutRequest request = mapper.readValue("{\"buyerId\":1,\"totalAmount\":59.97,"
+                + "\"items\":[{\"quantity\":3,\"price\":19.99},{\"quantity\":1,\"price\":\"5\"},{\"quantity\":1,\"price\":2}]}",
+                CheckoutRequest.class);
+        assertEquals(Money.ofMinor(5997), request.getTotalAmount());
+        assertEquals(Money.ofMinor(1999), request.getItems().get(0).getPrice());
+        assertEquals(Money.ofMinor(500), request.getItems().get(1).getPrice());
+        assertEquals(Money.ofMinor(200), request.getItems().get(2).getPrice());
+    }
+
+    @Test
+    void convertsToDecimalColumn() {
+        MoneyConverter converter = new MoneyConverter();
+        assertEquals(new BigDecimal("19.99"), converter.convertToDatabaseColumn(Money.ofMinor(1999)));
+        assertEquals(Money.ofMinor(1999), converter.convertToEntityAttribute(new BigDecimal("19.990")));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
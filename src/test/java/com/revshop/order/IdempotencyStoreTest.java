@@ -0,0 +1,229 @@
+package com.revshop.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revshop.config.IdPoolInitializer;
+import com.revshop.model.Order;
+import com.revshop.model.OrderItem;
+import com.revshop.model.Product;
+import com.revshop.model.User;
+import com.revshop.money.Money;
+import com.revshop.repository.OrderItemRepository;
+import com.revshop.repository.OrderRepository;
+import com.revshop.repository.ProductRepository;
+import com.revshop.repository.UserRepository;
+import com.revshop.search.ProductSuggester;
+import com.revshop.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({IdempotencyStore.class, OrderService.class, OrderIdGenerator.class, IdPoolInitializer.class, ProductSuggester.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyStoreTest {
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final Map<String, Object> REQUEST = Map.of("productId", 1, "quantity", 1);
+
+    private final AtomicInteger placed = new AtomicInteger();
+    private User buyer;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        buyer = newUser("BUYER");
+        product = productRepository.save(new Product("Phone", "", new BigDecimal("19.99"), 10, "Electronics", newUser("SELLER")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM idempotency_keys");
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void retryReturnsTheOriginalOrderWithoutPlacingAnother() {
+        IdempotencyStore.Result first = idempotencyStore.execute("retry-key", buyer.getId(), REQUEST, placeOrder());
+        IdempotencyStore.Result retry = idempotencyStore.execute("retry-key", buyer.getId(), REQUEST, placeOrder());
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(first.response(), retry.response());
+        assertTrue(first.response().contains("\"orderNumber\":\"ORD-"));
+        assertEquals(1, placed.get());
+        assertEquals(1, orderRepository.count());
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstRequest() throws Exception {
+        int requests = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<IdempotencyStore.Result>> results = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return idempotencyStore.execute("double-click", buyer.getId(), REQUEST, () -> {
+                    sleep(200);
+                    return placeOrder().get();
+                });
+            }));
+        }
+        start.countDown();
+
+        String response = results.get(0).get().response();
+        int ran = 0;
+        for (Future<IdempotencyStore.Result> result : results) {
+            assertEquals(response, result.get().response());
+            ran += result.get().replayed() ? 0 : 1;
+        }
+        pool.shutdown();
+
+        assertEquals(1, ran);
+        assertEquals(1, placed.get());
+        assertEquals(1, orderRepository.count());
+    }
+
+    @Test
+    void storedKeysOutliveTheInMemoryStore() throws Exception {
+        IdempotencyStore.Result first = idempotencyStore.execute("durable-key", buyer.getId(), REQUEST, placeOrder());
+
+        // A restarted instance only has the table
+        IdempotencyStore restarted = newStore();
+        IdempotencyStore.Result retry = restarted.execute("durable-key", buyer.getId(), REQUEST, placeOrder());
+        assertTrue(retry.replayed());
+        assertEquals(first.response(), retry.response());
+
+        // Another instance that starts the same key while this one runs it loses on the key's row
+        IdempotencyStore other = newStore();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        IdempotencyStore.Result raced = other.execute("raced-key", buyer.getId(), REQUEST, () -> {
+            Order order = placeOrder().get();
+            try {
+                pool.submit(() -> idempotencyStore.execute("raced-key", buyer.getId(), REQUEST, placeOrder())).get();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return order;
+        });
+        pool.shutdown();
+
+        assertTrue(raced.replayed());
+        assertEquals(3, placed.get());
+        assertEquals(2, orderRepository.count());
+    }
+
+    @Test
+    void failuresStoreNothingAndKeysStayWithTheirBuyer() {
+        assertThrows(IllegalArgumentException.class, () -> idempotencyStore.execute("failing-key", buyer.getId(), REQUEST, () -> {
+            throw new IllegalArgumentException("Product not found");
+        }));
+        assertFalse(idempotencyStore.execute("failing-key", buyer.getId(), REQUEST, placeOrder()).replayed());
+
+        User otherBuyer = newUser("BUYER");
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> idempotencyStore.execute("failing-key", otherBuyer.getId(), REQUEST, placeOrder()));
+        assertEquals(1, placed.get());
+    }
+
+    @Test
+    void aKeyReusedForADifferentRequestIsRejected() {
+        idempotencyStore.execute("reused-key", buyer.getId(), REQUEST, placeOrder());
+        Map<String, Object> otherRequest = Map.of("productId", 1, "quantity", 2);
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> idempotencyStore.execute("reused-key", buyer.getId(), otherRequest, placeOrder()));
+        // Also when only the table still has the key
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> newStore().execute("reused-key", buyer.getId(), otherRequest, placeOrder()));
+        assertEquals(1, placed.get());
+    }
+
+    private Supplier<Order> placeOrder() {
+        return () -> {
+            placed.incrementAndGet();
+            Order order = new Order();
+            order.setBuyerId(buyer.getId());
+            order.setStatus("PLACED");
+            order.setTotalAmount(Money.ofMinor(1999));
+            OrderItem item = new OrderItem();
+            item.setProductId(product.getId());
+            item.setProductName("Phone");
+            item.setQuantity(1);
+            item.setPrice(Money.ofMinor(1999));
+            return orderService.placeOrder(order, List.of(item));
+        };
+    }
+
+    private IdempotencyStore newStore() {
+        return new IdempotencyStore(jdbcTemplate, transactionManager, objectMapper, 100, 24, 1000);
+    }
+
+    private User newUser(String role) {
+        User user = new User();
+        user.setName(role);
+        user.setEmail(role.toLowerCase() + System.nanoTime() + "@revshop.com");
+        user.setPassword("secret");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.revshop.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderIdGeneratorTest {
+
+    private static final long NOW = Instant.parse("2026-06-01T12:00:00Z").toEpochMilli();
+
+    @Test
+    void idsIncreaseAndFitInAJavaScriptNumber() {
+        OrderIdGenerator generator = new OrderIdGenerator(5, Clock.systemUTC());
+        long previous = 0;
+        for (int i = 0; i < 100_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertTrue(id < (1L << 53));
+            previous = id;
+        }
+    }
+
+    @Test
+    void nodesNeverShareAnId() {
+        Clock frozen = Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC);
+        OrderIdGenerator first = new OrderIdGenerator(1, frozen);
+        OrderIdGenerator second = new OrderIdGenerator(2, frozen);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(ids.add(first.nextId()));
+            assertTrue(ids.add(second.nextId()));
+        }
+        assertEquals(2, second.nextId() >> OrderIdGenerator.SEQUENCE_BITS & OrderIdGenerator.MAX_NODE_ID);
+    }
+
+    @Test
+    void keepsIncreasingWhenTheClockStepsBack() {
+        MutableClock clock = new MutableClock(NOW);
+        OrderIdGenerator generator = new OrderIdGenerator(0, clock);
+        long before = generator.nextId();
+        clock.millis = NOW - 5_000;
+        assertTrue(generator.nextId() > before);
+    }
+
+    @Test
+    void concurrentCallersGetDistinctIds() throws Exception {
+        OrderIdGenerator generator = new OrderIdGenerator(3, Clock.systemUTC());
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<List<Long>>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(pool.submit(() -> {
+                List<Long> ids = new ArrayList<>();
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(generator.nextId());
+                }
+                return ids;
+            }));
+        }
+        Set<Long> ids = new HashSet<>();
+        for (Future<List<Long>> result : results) {
+            ids.addAll(result.get());
+        }
+        pool.shutdown();
+        assertEquals(80_000, ids.size());
+    }
+
+    @Test
+    void rejectsNodeIdsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderIdGenerator(OrderIdGenerator.MAX_NODE_ID + 1, Clock.systemUTC()));
+    }
+
+    @Test
+    void requiresANodeIdUnlessSingleInstance() {
+        assertThrows(IllegalStateException.class, () -> new OrderIdGenerator(-1, false));
+        assertEquals(0, new OrderIdGenerator(-1, true).getNodeId());
+        assertEquals(7, new OrderIdGenerator(7, false).getNodeId());
+    }
+
+    private static final class MutableClock extends Clock {
+        long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+    }
+}
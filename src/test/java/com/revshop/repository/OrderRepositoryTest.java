@@ -0,0 +1,48 @@
+package com.revshop.repository;
+
+import com.revshop.dto.OrderHistoryDTO;
+import com.revshop.model.Order;
+import com.revshop.model.User;
+import com.revshop.money.Money;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+class OrderRepositoryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void orderHistoryCarriesExactTotals() {
+        User buyer = new User();
+        buyer.setName("Buyer");
+        buyer.setEmail("buyer@revshop.com");
+        buyer.setPassword("secret");
+        buyer.setRole("BUYER");
+        entityManager.persist(buyer);
+
+        Order order = new Order();
+        order.setId(1L);
+        order.setBuyer(buyer);
+        order.setStatus("PLACED");
+        order.setTotalAmount(Money.ofMinor(10).times(3));
+        orderRepository.save(order);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<OrderHistoryDTO> history = orderRepository.findOrderHistoryByBuyer(buyer.getId());
+        assertEquals(1, history.size());
+        assertEquals(Money.ofMinor(30), history.get(0).getTotalAmount());
+        assertEquals(Money.ofMinor(30), orderRepository.findById(order.getId()).orElseThrow().getTotalAmount());
+    }
+}
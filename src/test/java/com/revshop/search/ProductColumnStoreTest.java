@@ -0,0 +1,87 @@
+package com.revshop.search;
+
+import com.revshop.dto.ProductDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductColumnStoreTest {
+
+    private ProductColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ProductColumnStore();
+        store.onCatalogLoaded(List.of(
+                product(1L, "19.99", 5, "Books", 10L),
+                product(2L, "5.00", 0, "Books", 10L),
+                product(3L, "249.50", 2, "Electronics", 20L),
+                product(4L, "19.99", 1, "electronics", 20L)
+        ));
+    }
+
+    @Test
+    void scansPriceRangesInEitherDirection() {
+        assertArrayEquals(new long[]{2, 1, 4, 3}, store.findByPrice(0, Long.MAX_VALUE, null, null, false, false, 0, 10));
+        assertArrayEquals(new long[]{3, 4, 1, 2}, store.findByPrice(0, Long.MAX_VALUE, null, null, false, true, 0, 10));
+        assertArrayEquals(new long[]{1, 4}, store.findByPrice(1999, 1999, null, null, false, false, 0, 10));
+        assertArrayEquals(new long[]{4}, store.findByPrice(1000, 30000, null, null, false, false, 1, 1));
+    }
+
+    @Test
+    void pagesThroughARangeWithOffsets() {
+        // Unfiltered offsets are skipped by index, filtered ones by counting matches; both give the same pages
+        assertArrayEquals(new long[]{4, 3}, store.findByPrice(0, Long.MAX_VALUE, null, null, false, false, 2, 10));
+        assertArrayEquals(new long[]{1, 2}, store.findByPrice(0, Long.MAX_VALUE, null, null, false, true, 2, 10));
+        assertArrayEquals(new long[]{4}, store.findByPrice(1999, 1999, null, null, false, false, 1, 10));
+        assertEquals(0, store.findByPrice(0, Long.MAX_VALUE, null, null, false, false, 4, 10).length);
+        assertArrayEquals(new long[]{3}, store.findByPrice(0, Long.MAX_VALUE, null, null, true, false, 2, 10));
+    }
+
+    @Test
+    void appliesColumnFilters() {
+        assertArrayEquals(new long[]{1, 4, 3}, store.findByPrice(0, Long.MAX_VALUE, null, null, true, false, 0, 10));
+        assertArrayEquals(new long[]{4, 3}, store.findByPrice(0, Long.MAX_VALUE, "ELECTRONICS", null, false, false, 0, 10));
+        assertArrayEquals(new long[]{2, 1}, store.findByPrice(0, Long.MAX_VALUE, null, 10L, false, false, 0, 10));
+        assertEquals(0, store.findByPrice(0, Long.MAX_VALUE, "Toys", null, false, false, 0, 10).length);
+    }
+
+    @Test
+    void followsProductWrites() {
+        store.onProductSaved(product(2L, "300.00", 3, "Books", 10L));
+        store.onProductSaved(product(5L, "0.99", 9, "Toys", 30L));
+        store.onProductDeleted(3L);
+
+        assertArrayEquals(new long[]{5, 1, 4, 2}, store.findByPrice(0, Long.MAX_VALUE, null, null, false, false, 0, 10));
+        assertEquals(4, store.size());
+    }
+
+    @Test
+    void deletedRowsAreReusedByNewProducts() {
+        for (long id = 5; id < 1_005; id++) {
+            store.onProductSaved(product(id, "9.99", 1, "Toys", 30L));
+            store.onProductDeleted(id);
+        }
+        store.onProductDeleted(1L);
+        store.onProductSaved(product(2_000L, "1.00", 1, "Toys", 30L));
+
+        assertEquals(5, store.rowCount());
+        assertEquals(4, store.size());
+        assertArrayEquals(new long[]{2_000, 2, 4, 3}, store.findByPrice(0, Long.MAX_VALUE, null, null, false, false, 0, 10));
+        assertArrayEquals(new long[]{2_000}, store.findByPrice(0, Long.MAX_VALUE, "toys", 30L, false, false, 0, 10));
+    }
+
+    @Test
+    void roundsPricesToCents() {
+        assertEquals(1000, ProductColumnStore.toCents(new BigDecimal("9.995")));
+        assertEquals(0, ProductColumnStore.toCents(null));
+    }
+
+    private static ProductDTO product(Long id, String price, int stock, String category, Long sellerId) {
+        return new ProductDTO(id, "P" + id, "", new BigDecimal(price), stock, category, null, 5, sellerId, "Seller");
+    }
+}
@@ -0,0 +1,97 @@
+package com.revshop.search;
+
+import com.revshop.dto.ProductDTO;
+import com.revshop.dto.ProductFacetResultDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFacetIndexTest {
+
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFacetIndex();
+        index.onCatalogLoaded(List.of(
+                product(3L, "Electronics", "999.00", 4, 10L),
+                product(1L, "Electronics", "20.00", 0, 10L),
+                product(2L, "Books", "15.00", 8, 20L),
+                product(4L, "electronics", "75.00", 2, 20L)
+        ));
+    }
+
+    @Test
+    void combinesFiltersAndKeepsIdOrder() {
+        ProductFacetResultDTO result = index.query(query(Set.of("ELECTRONICS"), Set.of(), Set.of(), true));
+        assertEquals(List.of(3L, 4L), ids(result.getItems()));
+        assertEquals(2, result.getTotal());
+
+        result = index.query(query(Set.of(), Set.of(PriceBand.UNDER_25, PriceBand.FROM_50), Set.of(20L), null));
+        assertEquals(List.of(2L, 4L), ids(result.getItems()));
+
+        assertEquals(List.of(1L, 3L, 4L), ids(index.findByCategory("electronics")));
+    }
+
+    @Test
+    void facetCountsIgnoreTheirOwnFilter() {
+        ProductFacetResultDTO result = index.query(query(Set.of("Books"), Set.of(), Set.of(), true));
+
+        Map<String, Map<String, Integer>> facets = result.getFacets();
+        assertEquals(Map.of("Electronics", 2, "Books", 1), facets.get(ProductFacetIndex.CATEGORY));
+        assertEquals(Map.of("0-25", 1), facets.get(ProductFacetIndex.PRICE_BAND));
+        assertEquals(Map.of("20", 1), facets.get(ProductFacetIndex.SELLER));
+        assertEquals(Map.of("inStock", 1, "outOfStock", 0), facets.get(ProductFacetIndex.STOCK));
+    }
+
+    @Test
+    void pagesThroughMatches() {
+        ProductFacetQuery all = new ProductFacetQuery(Set.of(), Set.of(), Set.of(), null, 1, 2);
+        assertEquals(List.of(2L, 3L), ids(index.query(all).getItems()));
+        assertTrue(index.query(new ProductFacetQuery(null, null, null, null, 10, 2)).getItems().isEmpty());
+    }
+
+    @Test
+    void updatesIncrementally() {
+        index.onProductSaved(product(1L, "Books", "20.00", 3, 10L));
+        index.onProductSaved(product(5L, "Toys", "1500.00", 1, 30L));
+        index.onProductDeleted(2L);
+
+        assertEquals(List.of(1L), ids(index.query(query(Set.of("books"), Set.of(), Set.of(), true)).getItems()));
+        assertEquals(List.of(5L), ids(index.query(query(Set.of(), Set.of(PriceBand.FROM_1000), Set.of(), null)).getItems()));
+        assertEquals(List.of(3L, 4L), ids(index.findByCategory("Electronics")));
+        assertEquals(Map.of("10", 2, "20", 1, "30", 1),
+                index.query(query(Set.of(), Set.of(), Set.of(), null)).getFacets().get(ProductFacetIndex.SELLER));
+    }
+
+    @Test
+    void newProductsReuseDeletedDocuments() {
+        index.onProductDeleted(1L);
+        index.onProductDeleted(2L);
+        index.onProductSaved(product(5L, "Books", "10.00", 1, 10L));
+        index.onProductSaved(product(6L, "Books", "12.00", 1, 10L));
+        index.onProductSaved(product(7L, "Books", "14.00", 1, 10L));
+
+        // 5 and 6 took the first two documents, 7 was appended after 4
+        assertEquals(List.of(5L, 6L, 3L, 4L, 7L), ids(index.query(query(Set.of(), Set.of(), Set.of(), null)).getItems()));
+        assertEquals(List.of(5L, 6L, 7L), ids(index.findByCategory("books")));
+    }
+
+    private static ProductFacetQuery query(Set<String> categories, Set<PriceBand> bands, Set<Long> sellers, Boolean inStock) {
+        return new ProductFacetQuery(categories, bands, sellers, inStock, 0, 50);
+    }
+
+    private static ProductDTO product(Long id, String category, String price, int stock, Long sellerId) {
+        return new ProductDTO(id, "P" + id, "", new BigDecimal(price), stock, category, null, 5, sellerId, "Seller");
+    }
+
+    private static List<Long> ids(List<ProductDTO> products) {
+        return products.stream().map(ProductDTO::getId).toList();
+    }
+}
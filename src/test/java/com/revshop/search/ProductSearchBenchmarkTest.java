@@ -0,0 +1,109 @@
+package com.revshop.search;
+
+import com.revshop.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the inverted index with the old scan-and-contains search path.
+ * Run with: mvn test -Dtest=ProductSearchBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductSearchBenchmarkTest {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final String[] BRANDS = {"apple", "samsung", "sony", "nike", "adidas", "dell", "lenovo", "puma", "canon", "bose"};
+    private static final String[] ITEMS = {"phone", "laptop", "headphones", "shoes", "camera", "watch", "tablet", "speaker", "jacket", "monitor"};
+    private static final String[] ADJECTIVES = {"wireless", "pro", "max", "mini", "ultra", "classic", "sport", "premium", "lite", "plus"};
+    private static final String[] CATEGORIES = {"Electronics", "Clothing", "Books", "Home & Garden", "Sports", "Toys"};
+    private static final String[] QUERIES = {"apple pro laptop", "wireless headphones", "sony camera ultra", "nike shoes", "premium watch"};
+    private static final String[] MISSPELLED = {"aple pro laptp", "wireles headphnes", "samsng tablett", "addidas shoos"};
+
+    @Test
+    void indexVersusScan() {
+        List<ProductDTO> catalog = generateCatalog();
+        ProductSearchIndex index = new ProductSearchIndex();
+
+        long buildStart = System.nanoTime();
+        index.onCatalogLoaded(catalog);
+        System.out.printf("Indexed %,d products in %d ms%n", PRODUCTS, (System.nanoTime() - buildStart) / 1_000_000);
+
+        for (String query : QUERIES) {
+            // Warm up both paths before measuring
+            for (int i = 0; i < 3; i++) {
+                scan(catalog, query);
+            }
+            for (int i = 0; i < 100; i++) {
+                index.search(query, 100);
+            }
+
+            int scanRuns = 5;
+            long scanStart = System.nanoTime();
+            int scanHits = 0;
+            for (int i = 0; i < scanRuns; i++) {
+                scanHits = scan(catalog, query).size();
+            }
+            double scanMicros = (System.nanoTime() - scanStart) / 1000.0 / scanRuns;
+
+            int indexRuns = 200;
+            long indexStart = System.nanoTime();
+            int indexHits = 0;
+            for (int i = 0; i < indexRuns; i++) {
+                indexHits = index.search(query, 100).size();
+            }
+            double indexMicros = (System.nanoTime() - indexStart) / 1000.0 / indexRuns;
+
+            System.out.printf("%-22s scan: %,12.1f us (%,d hits)   index: %,8.1f us (%,d hits)%n",
+                    "\"" + query + "\"", scanMicros, scanHits, indexMicros, indexHits);
+        }
+
+        for (String query : MISSPELLED) {
+            for (int i = 0; i < 100; i++) {
+                index.search(query, 100, true);
+            }
+            int runs = 200;
+            long start = System.nanoTime();
+            int hits = 0;
+            for (int i = 0; i < runs; i++) {
+                hits = index.search(query, 100, true).size();
+            }
+            System.out.printf("%-22s fuzzy: %,8.1f us (%,d hits)%n",
+                    "\"" + query + "\"", (System.nanoTime() - start) / 1000.0 / runs, hits);
+        }
+    }
+
+    /**
+     * The search path ProductController used before the index: whole-query substring match over every product
+     */
+    private static List<ProductDTO> scan(List<ProductDTO> catalog, String query) {
+        return catalog.stream()
+                .filter(product ->
+                    (product.getName() != null && product.getName().toLowerCase().contains(query.toLowerCase())) ||
+                    (product.getDescription() != null && product.getDescription().toLowerCase().contains(query.toLowerCase()))
+                )
+                .collect(Collectors.toList());
+    }
+
+    private static List<ProductDTO> generateCatalog() {
+        Random random = new Random(42);
+        List<ProductDTO> catalog = new ArrayList<>(PRODUCTS);
+        for (long id = 1; id <= PRODUCTS; id++) {
+            String name = pick(random, BRANDS) + " " + pick(random, ADJECTIVES) + " " + pick(random, ITEMS);
+            String description = "The " + pick(random, ADJECTIVES) + " " + pick(random, ITEMS)
+                    + " from " + pick(random, BRANDS) + " model " + random.nextInt(5000);
+            catalog.add(new ProductDTO(id, name, description, new BigDecimal("49.99"), random.nextInt(100),
+                    pick(random, CATEGORIES), null, 5, 1L, "Seller"));
+        }
+        return catalog;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,121 @@
+package com.revshop.search;
+
+import com.revshop.dto.ProductDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.onCatalogLoaded(List.of(
+                product(1L, "Apple iPhone 15 Pro", "Titanium smartphone", "Electronics"),
+                product(2L, "MacBook Air", "Apple laptop with M2 chip", "Electronics"),
+                product(3L, "Nike Air Max", "Running shoes", "Sports")
+        ));
+    }
+
+    @Test
+    void matchesAllTermsAcrossFields() {
+        assertEquals(List.of(1L, 2L), ids(index.search("apple", 10)));
+        assertEquals(List.of(2L), ids(index.search("Apple laptop", 10)));
+        assertEquals(List.of(2L, 3L), ids(index.search("air", 10)));
+        assertEquals(List.of(3L), ids(index.search("sports AIR", 10)));
+        assertTrue(index.search("apple shoes", 10).isEmpty());
+        assertTrue(index.search("   ", 10).isEmpty());
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        index.onProductSaved(product(4L, "Leather case", "Case for the apple iphone", "Accessories"));
+        index.onProductSaved(product(5L, "Apple iPhone 14", "Older model", "Electronics"));
+
+        // Names beat descriptions, and a shorter name beats a longer one
+        assertEquals(List.of(5L, 1L, 4L), ids(index.search("apple iphone", 10)));
+        assertEquals(List.of(5L, 1L), ids(index.search("apple iphone", 2)));
+    }
+
+    @Test
+    void boostsProductsInStock() {
+        index.onProductSaved(product(4L, "Nike Air Max", "Running shoes", "Sports", 0));
+        index.onProductSaved(product(5L, "Nike Air Max", "Running shoes", "Sports", 3));
+
+        assertEquals(List.of(3L, 5L, 4L), ids(index.search("nike", 10)));
+    }
+
+    @Test
+    void respectsLimit() {
+        assertEquals(List.of(1L), ids(index.search("electronics", 1)));
+    }
+
+    @Test
+    void updatesIncrementally() {
+        index.onProductSaved(product(2L, "MacBook Pro", "Laptop", "Electronics"));
+        assertEquals(List.of(2L, 1L), ids(index.search("pro", 10)));
+        assertTrue(index.search("air laptop", 10).isEmpty());
+
+        index.onProductSaved(product(4L, "Kindle", "E-reader", "Books"));
+        assertEquals(List.of(4L), ids(index.search("reader", 10)));
+
+        index.onProductDeleted(1L);
+        assertEquals(List.of(2L), ids(index.search("pro", 10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void fuzzyModeCorrectsMisspelledNameTerms() {
+        assertTrue(index.search("iphne", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("iphne", 10, true)));
+        assertEquals(List.of(2L), ids(index.search("makbook", 10, true)));
+        assertEquals(List.of(2L), ids(index.search("aple macbok", 10, true)));
+        assertTrue(index.search("xyzzy", 10, true).isEmpty());
+
+        index.onProductDeleted(2L);
+        assertTrue(index.search("makbook", 10, true).isEmpty());
+    }
+
+    @Test
+    void boundedDistanceStopsEarly() {
+        assertEquals(1, TrigramIndex.boundedDistance("iphne", "iphone", 2));
+        assertEquals(2, TrigramIndex.boundedDistance("macbok", "mcbook", 2));
+        assertEquals(2, TrigramIndex.boundedDistance("kitten", "sitting", 1));
+        assertEquals(3, TrigramIndex.boundedDistance("kitten", "sitting", 5));
+    }
+
+    @Test
+    void intersectsLargePostingLists() {
+        List<ProductDTO> products = new ArrayList<>();
+        for (long i = 10_000; i > 0; i--) {
+            String name = (i % 2 == 0 ? "even " : "") + (i % 3 == 0 ? "triple" : "other");
+            products.add(product(i, name, "", "Misc"));
+        }
+        index.onCatalogLoaded(products);
+
+        // Every match has the same name, so the equal scores come back in product ID order
+        List<Long> result = ids(index.search("even triple", Integer.MAX_VALUE));
+        assertEquals(10_000 / 6, result.size());
+        assertEquals(6L, result.get(0));
+        assertEquals(9996L, result.get(result.size() - 1));
+    }
+
+    static ProductDTO product(Long id, String name, String description, String category) {
+        return product(id, name, description, category, 5);
+    }
+
+    static ProductDTO product(Long id, String name, String description, String category, int stock) {
+        return new ProductDTO(id, name, description, new BigDecimal("10.00"), stock, category, null, 5, 1L, "Seller");
+    }
+
+    private static List<Long> ids(List<ProductDTO> products) {
+        return products.stream().map(ProductDTO::getId).toList();
+    }
+}
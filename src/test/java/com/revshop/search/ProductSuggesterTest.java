@@ -0,0 +1,90 @@
+package com.revshop.search;
+
+import com.revshop.dto.ProductSuggestionDTO;
+import com.revshop.repository.OrderItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static com.revshop.search.ProductSearchIndexTest.product;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSuggesterTest {
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    private ProductSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        when(orderItemRepository.sumQuantityByProduct()).thenReturn(List.<Object[]>of(
+                new Object[]{2L, 50L},
+                new Object[]{3L, 7L}
+        ));
+        suggester = new ProductSuggester(orderItemRepository);
+        suggester.onCatalogLoaded(List.of(
+                product(1L, "Apple iPhone 15", "", "Electronics"),
+                product(2L, "Apple Watch", "", "Electronics"),
+                product(3L, "Apricot Jam", "", "Food")
+        ));
+    }
+
+    @Test
+    void ranksPrefixMatchesByPopularity() {
+        assertEquals(List.of("Apple Watch", "Apricot Jam", "Apple iPhone 15"), texts(suggester.suggest("ap", 10)));
+        assertEquals(List.of("Apple Watch"), texts(suggester.suggest("  APPLE-", 1)));
+        assertEquals(List.of("Electronics"), texts(suggester.suggest("elec", 10)));
+        assertEquals(2, suggester.suggest("elec", 10).get(0).productCount());
+        assertTrue(suggester.suggest("zz", 10).isEmpty());
+        assertTrue(suggester.suggest(" ", 10).isEmpty());
+    }
+
+    @Test
+    void cachedPrefixesFollowWritesAndSales() {
+        assertEquals("Apple Watch", suggester.suggest("ap", 10).get(0).text());
+
+        suggester.recordSale(1L, 100);
+        assertEquals("Apple iPhone 15", suggester.suggest("ap", 10).get(0).text());
+
+        suggester.onProductSaved(product(1L, "Banana", "", "Food"));
+        assertEquals(List.of("Apple Watch", "Apricot Jam"), texts(suggester.suggest("ap", 10)));
+        assertEquals(List.of("Banana"), texts(suggester.suggest("b", 10)));
+
+        suggester.onProductDeleted(2L);
+        assertEquals(List.of("Apricot Jam"), texts(suggester.suggest("ap", 10)));
+    }
+
+    @Test
+    void stockSavesAndSalesKeepPrefixesCached() {
+        List<ProductSuggestionDTO> cached = suggester.suggest("ap", 10);
+        assertEquals(1L, suggester.getStats().get("misses"));
+
+        // Same name and category, new stock: the cached list is served as is
+        suggester.onProductSaved(product(2L, "Apple Watch", "", "Electronics", 0));
+        assertSame(cached, suggester.suggest("ap", 10));
+
+        // A sale re-ranks the cached lists that hold the product instead of dropping them
+        suggester.recordSale(3L, 60);
+        suggester.recordSale(1L, 1);
+        assertEquals(List.of("Apricot Jam", "Apple Watch", "Apple iPhone 15"), texts(suggester.suggest("ap", 10)));
+        assertEquals(67L, suggester.suggest("a", 10).get(0).popularity());
+        assertEquals(1L, suggester.suggest("appl", 10).get(1).popularity());
+        assertEquals(List.of("Electronics"), texts(suggester.suggest("e", 10)));
+        suggester.recordSale(2L, 5);
+        assertEquals(56L, suggester.suggest("e", 10).get(0).popularity());
+
+        // Only the first lookup of each prefix missed
+        assertEquals(4L, suggester.getStats().get("misses"));
+    }
+
+    private static List<String> texts(List<ProductSuggestionDTO> suggestions) {
+        return suggestions.stream().map(ProductSuggestionDTO::text).toList();
+    }
+}
@@ -0,0 +1,201 @@
+package com.revshop.service;
+
+import com.revshop.cache.ProductCache;
+import com.revshop.cart.CartBatchWriter;
+import com.revshop.cart.CartStore;
+import com.revshop.cart.CartSummaryCache;
+import com.revshop.cart.CartUpserter;
+import com.revshop.dto.CartOperation;
+import com.revshop.dto.CartSummaryDTO;
+import com.revshop.model.Cart;
+import com.revshop.model.Product;
+import com.revshop.model.User;
+import com.revshop.money.Money;
+import com.revshop.repository.CartRepository;
+import com.revshop.repository.ProductRepository;
+import com.revshop.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrent adds of the same product must end up on one cart line holding every unit
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "revshop.cart.write-mode=write-through"
+})
+@Import({CartService.class, CartBatchWriter.class, CartStore.class, CartSummaryCache.class, CartUpserter.class, ProductCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ADDS_PER_THREAD = 25;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private CartUpserter cartUpserter;
+
+    @Autowired
+    private CartBatchWriter cartBatchWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path journalDir;
+
+    private User buyer;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        User seller = new User();
+        seller.setName("Seller");
+        seller.setEmail("seller" + System.nanoTime() + "@revshop.com");
+        seller.setPassword("secret");
+        seller.setRole("SELLER");
+        seller = userRepository.save(seller);
+        buyer = new User();
+        buyer.setName("Buyer");
+        buyer.setEmail("buyer" + System.nanoTime() + "@revshop.com");
+        buyer.setPassword("secret");
+        buyer.setRole("BUYER");
+        buyer = userRepository.save(buyer);
+        product = productRepository.save(new Product("Phone", "", new BigDecimal("19.99"), 1000, "Electronics", seller));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM cart");
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void writeThroughAddsNeverDuplicateALine() throws Exception {
+        // Prime the summary so every add has to keep it exact
+        assertEquals(CartSummaryDTO.empty(buyer.getId()), cartService.getCartSummary(buyer.getId()));
+
+        List<Long> ids = addConcurrently(cartService);
+
+        List<Cart> rows = cartRepository.findByUserId(buyer.getId());
+        assertEquals(1, rows.size());
+        assertEquals(THREADS * ADDS_PER_THREAD, rows.get(0).getQuantity());
+        assertEquals(Money.ofMinor(1999).times(THREADS * ADDS_PER_THREAD), rows.get(0).getTotalPrice());
+        assertTrue(ids.stream().allMatch(rows.get(0).getId()::equals));
+
+        CartSummaryDTO summary = cartService.getCartSummary(buyer.getId());
+        assertEquals(1, summary.lineCount());
+        assertEquals(THREADS * ADDS_PER_THREAD, summary.unitCount());
+        assertEquals(rows.get(0).getTotalPrice(), summary.subtotal());
+    }
+
+    @Test
+    void writeBehindAddsNeverDuplicateALine() throws Exception {
+        CartSummaryCache summaries = new CartSummaryCache(100);
+        CartStore store = new CartStore(cartRepository, summaries, jdbcTemplate, transactionManager,
+                CartStore.WRITE_BEHIND, journalDir.toString(), false, 3_600_000, 30);
+        store.start();
+        CartService writeBehind = new CartService(cartRepository, productCache, store, summaries, cartUpserter, cartBatchWriter);
+
+        addConcurrently(writeBehind);
+        store.flush();
+
+        List<Cart> rows = cartRepository.findByUserId(buyer.getId());
+        assertEquals(1, rows.size());
+        assertEquals(THREADS * ADDS_PER_THREAD, rows.get(0).getQuantity());
+    }
+
+    @Test
+    void uniqueKeyRejectsADuplicateLine() {
+        cartService.addToCart(buyer.getId(), product.getId(), 1);
+        assertThrows(Exception.class, () -> jdbcTemplate.update(
+                "INSERT INTO cart (user_id, product_id, quantity, price) VALUES (?, ?, 1, 19.99)", buyer.getId(), product.getId()));
+    }
+
+    @Test
+    void writeThroughBatchAppliesEveryOperationOrNone() {
+        Cart line = cartService.addToCart(buyer.getId(), product.getId(), 1);
+        assertEquals(1, cartService.getCartSummary(buyer.getId()).unitCount());
+
+        assertThrows(IllegalArgumentException.class, () -> cartService.applyBatch(buyer.getId(),
+                List.of(CartOperation.update(line.getId(), 9), CartOperation.add(-1L, 1))));
+        assertEquals(1, cartRepository.findByUserId(buyer.getId()).get(0).getQuantity());
+
+        List<Cart> cart = cartService.applyBatch(buyer.getId(), List.of(
+                CartOperation.add(product.getId(), 2),
+                CartOperation.update(line.getId(), 5)));
+        assertEquals(1, cart.size());
+        assertEquals(5, cart.get(0).getQuantity());
+        assertEquals(new CartSummaryDTO(buyer.getId(), 1, 5, Money.ofMinor(9995)), cartService.getCartSummary(buyer.getId()));
+
+        // Removed and added again in one batch: the old row goes, a fresh one replaces it
+        cart = cartService.applyBatch(buyer.getId(), List.of(
+                CartOperation.remove(line.getId()),
+                CartOperation.add(product.getId(), 3)));
+        assertEquals(1, cart.size());
+        assertNotEquals(line.getId(), cart.get(0).getId());
+        assertEquals(3, cart.get(0).getQuantity());
+        assertEquals(new CartSummaryDTO(buyer.getId(), 1, 3, Money.ofMinor(5997)), cartService.getCartSummary(buyer.getId()));
+    }
+
+    private List<Long> addConcurrently(CartService service) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Long>>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                List<Long> ids = new ArrayList<>();
+                for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                    ids.add(service.addToCart(buyer.getId(), product.getId(), 1).getId());
+                }
+                return ids;
+            }));
+        }
+        start.countDown();
+        List<Long> ids = new ArrayList<>();
+        for (Future<List<Long>> result : results) {
+            ids.addAll(result.get());
+        }
+        pool.shutdown();
+        return ids;
+    }
+}
@@ -0,0 +1,360 @@
+package com.revshop.service;
+
+import com.revshop.cache.ProductCache;
+import com.revshop.cart.CartBatchWriter;
+import com.revshop.cart.CartStore;
+import com.revshop.cart.CartSummaryCache;
+import com.revshop.cart.CartUpserter;
+import com.revshop.catalog.CatalogVersion;
+import com.revshop.catalog.ProductChangePublisher;
+import com.revshop.config.IdPoolInitializer;
+import com.revshop.dto.ShippingAddress;
+import com.revshop.inventory.FlashSaleStock;
+import com.revshop.model.Cart;
+import com.revshop.model.Order;
+import com.revshop.model.OrderItem;
+import com.revshop.model.Product;
+import com.revshop.model.User;
+import com.revshop.money.Money;
+import com.revshop.order.IdempotencyStore;
+import com.revshop.order.OrderIdGenerator;
+import com.revshop.order.OutOfStockException;
+import com.revshop.repository.CartRepository;
+import com.revshop.repository.OrderItemRepository;
+import com.revshop.repository.OrderRepository;
+import com.revshop.repository.ProductRepository;
+import com.revshop.repository.UserRepository;
+import com.revshop.search.ProductSuggester;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "revshop.cart.write-mode=write-through"
+})
+@Import({CheckoutService.class, CartService.class, CartBatchWriter.class, CartStore.class, CartSummaryCache.class,
+        CartUpserter.class, ProductCache.class, OrderService.class, OrderIdGenerator.class, IdPoolInitializer.class,
+        ProductSuggester.class, ProductChangePublisher.class, CatalogVersion.class, FlashSaleStock.class, IdempotencyStore.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CheckoutServiceTest {
+
+    private static final ShippingAddress ADDRESS = new ShippingAddress("Buyer", "1 Main St", "Pune", "MH", "411001", "India", "555");
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private FlashSaleStock flashSaleStock;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User seller;
+
+    @BeforeEach
+    void setUp() {
+        seller = newUser("SELLER");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM cart");
+        jdbcTemplate.update("DELETE FROM flash_sale_shards");
+        jdbcTemplate.update("DELETE FROM idempotency_keys");
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void repricesFromProductsAndReservesStock() {
+        Product phone = newProduct("Phone", "19.99", 10);
+        Product laptop = newProduct("Laptop", "999.00", 3);
+        User buyer = newUser("BUYER");
+        cartService.addToCart(buyer.getId(), phone.getId(), 2);
+        cartService.addToCart(buyer.getId(), laptop.getId(), 1);
+        // The price changes after the items went into the cart; checkout charges the current one
+        jdbcTemplate.update("UPDATE products SET price = 17.50 WHERE product_id = ?", phone.getId());
+
+        Order order = checkoutService.checkoutCart(buyer.getId(), ADDRESS);
+
+        assertEquals(Money.ofMinor(3500 + 99900), order.getTotalAmount());
+        assertEquals("ORD-" + order.getId(), order.getOrderNumber());
+        List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
+        assertEquals(2, items.size());
+        assertEquals(8, stockOf(phone));
+        assertEquals(2, stockOf(laptop));
+        assertTrue(cartRepository.findByUserId(buyer.getId()).isEmpty());
+        // Delivered to the in-memory views after commit
+        assertEquals(8, productCache.get(phone.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void shortLineRejectsTheWholeCheckout() {
+        Product phone = newProduct("Phone", "19.99", 10);
+        Product laptop = newProduct("Laptop", "999.00", 1);
+        User buyer = newUser("BUYER");
+        cartService.addToCart(buyer.getId(), phone.getId(), 2);
+        cartService.addToCart(buyer.getId(), laptop.getId(), 2);
+
+        OutOfStockException e = assertThrows(OutOfStockException.class, () -> checkoutService.checkoutCart(buyer.getId(), ADDRESS));
+
+        assertEquals(List.of(laptop.getId()), e.getProductIds());
+        assertEquals(10, stockOf(phone));
+        assertEquals(1, stockOf(laptop));
+        assertEquals(0, orderRepository.count());
+        assertEquals(2, cartRepository.findByUserId(buyer.getId()).size());
+    }
+
+    @Test
+    void nonPositiveQuantitiesAreRejectedBeforeReserving() {
+        Product phone = newProduct("Phone", "19.99", 10);
+        Product laptop = newProduct("Laptop", "999.00", 3);
+        User buyer = newUser("BUYER");
+        cartService.addToCart(buyer.getId(), phone.getId(), 2);
+        Cart laptopLine = cartService.addToCart(buyer.getId(), laptop.getId(), 1);
+
+        for (int quantity : new int[]{0, -5}) {
+            cartService.updateQuantity(laptopLine.getId(), quantity);
+            assertThrows(IllegalArgumentException.class, () -> checkoutService.checkoutCart(buyer.getId(), ADDRESS));
+            assertEquals(10, stockOf(phone));
+            assertEquals(3, stockOf(laptop));
+            assertEquals(0, orderRepository.count());
+            assertEquals(2, cartRepository.findByUserId(buyer.getId()).size());
+        }
+    }
+
+    @Test
+    void emptyCartIsRejected() {
+        User buyer = newUser("BUYER");
+        assertThrows(IllegalArgumentException.class, () -> checkoutService.checkoutCart(buyer.getId(), ADDRESS));
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        int stock = 10;
+        int buyers = 20;
+        Product phone = newProduct("Phone", "19.99", stock);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < buyers; i++) {
+            User buyer = newUser("BUYER");
+            cartService.addToCart(buyer.getId(), phone.getId(), 1);
+            users.add(buyer);
+        }
+
+        int placed = checkoutConcurrently(users);
+
+        assertEquals(stock, placed);
+        assertEquals(0, stockOf(phone));
+        assertEquals(stock, orderRepository.count());
+    }
+
+    @Test
+    void doubleClickedCheckoutOrdersTheCartOnce() throws Exception {
+        Product phone = newProduct("Phone", "19.99", 10);
+        User buyer = newUser("BUYER");
+        cartService.addToCart(buyer.getId(), phone.getId(), 2);
+
+        // The checkouts that lose the race find the cart already ordered
+        assertEquals(1, checkoutConcurrently(List.of(buyer, buyer, buyer, buyer)));
+
+        assertEquals(8, stockOf(phone));
+        assertEquals(1, orderRepository.count());
+        assertTrue(cartRepository.findByUserId(buyer.getId()).isEmpty());
+        assertEquals(0, cartService.getCartSummary(buyer.getId()).lineCount());
+    }
+
+    @Test
+    void retriedCartCheckoutWithAnIdempotencyKeyReplaysTheOrder() {
+        // 7 units from two shards of 5: the first attempt misses and rolls back before the key is saved
+        Product phone = newProduct("Phone", "19.99", 10);
+        flashSaleStock.enable(phone.getId(), 2);
+        User buyer = newUser("BUYER");
+        cartService.addToCart(buyer.getId(), phone.getId(), 7);
+        Map<String, Object> request = Map.of("buyerId", buyer.getId());
+
+        IdempotencyStore.Result first = idempotencyStore.executeOwnTransaction("cart-key", buyer.getId(), request,
+                save -> checkoutService.checkoutCart(buyer.getId(), ADDRESS, save::accept));
+        // The cart is empty now, so without the key this retry would fail
+        IdempotencyStore.Result retry = idempotencyStore.executeOwnTransaction("cart-key", buyer.getId(), request,
+                save -> checkoutService.checkoutCart(buyer.getId(), ADDRESS, save::accept));
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(first.response(), retry.response());
+        assertEquals(1, orderRepository.count());
+        assertEquals(3, shardTotal(phone));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys", Integer.class));
+    }
+
+    @Test
+    void flashSaleCheckoutsNeverOversellAndReconcile() throws Exception {
+        // 40 units in 4 shards of 10; orders of 3 regularly need more than one shard holds
+        Product phone = newProduct("Phone", "19.99", 40);
+        flashSaleStock.enable(phone.getId(), 4);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            User buyer = newUser("BUYER");
+            cartService.addToCart(buyer.getId(), phone.getId(), 3);
+            users.add(buyer);
+        }
+
+        assertEquals(13, checkoutConcurrently(users));
+        assertEquals(1, shardTotal(phone));
+
+        flashSaleStock.reconcile();
+        assertEquals(1, stockOf(phone));
+        assertEquals(List.of(1, 0, 0, 0), jdbcTemplate.queryForList(
+                "SELECT stock FROM flash_sale_shards WHERE product_id = ? ORDER BY shard_no", Integer.class, phone.getId()));
+        assertEquals(1, productCache.get(phone.getId()).orElseThrow().getStock());
+
+        assertEquals(1, flashSaleStock.disable(phone.getId()));
+        assertEquals(0, shardTotal(phone));
+        assertEquals(1, stockOf(phone));
+        assertFalse(flashSaleStock.isActive(phone.getId()));
+    }
+
+    @Test
+    void checkoutThatWaitedOnASaleStartTakesFromTheShards() throws Exception {
+        Product phone = newProduct("Phone", "19.99", 10);
+        User buyer = newUser("BUYER");
+        cartService.addToCart(buyer.getId(), phone.getId(), 2);
+        CountDownLatch shardsInserted = new CountDownLatch(1);
+        CountDownLatch commitSale = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        // What FlashSaleStock.enable does, held open so the checkout snapshots before the shards exist
+        Future<?> sale = pool.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT stock FROM products WHERE product_id = ? FOR UPDATE", Integer.class, phone.getId());
+            jdbcTemplate.update("INSERT INTO flash_sale_shards (product_id, shard_no, stock) VALUES (?, 0, 5), (?, 1, 5)",
+                    phone.getId(), phone.getId());
+            shardsInserted.countDown();
+            try {
+                commitSale.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        shardsInserted.await();
+        Future<Order> checkout = pool.submit(() -> checkoutService.checkoutCart(buyer.getId(), ADDRESS));
+        Thread.sleep(200);
+        commitSale.countDown();
+        sale.get();
+        checkout.get();
+        pool.shutdown();
+
+        // The units came out of the shards; products.stock follows them on reconcile, not before
+        assertEquals(8, shardTotal(phone));
+        assertEquals(10, stockOf(phone));
+        flashSaleStock.reconcile();
+        assertEquals(8, stockOf(phone));
+    }
+
+    @Test
+    void flashSaleRejectsASecondStartAndBadShardCounts() {
+        Product phone = newProduct("Phone", "19.99", 10);
+        assertThrows(IllegalArgumentException.class, () -> flashSaleStock.enable(phone.getId(), 1));
+        flashSaleStock.enable(phone.getId(), 2);
+        assertThrows(IllegalArgumentException.class, () -> flashSaleStock.enable(phone.getId(), 2));
+        assertThrows(IllegalArgumentException.class, () -> flashSaleStock.enable(-1L, 2));
+        assertEquals(10, flashSaleStock.disable(phone.getId()));
+        assertThrows(IllegalArgumentException.class, () -> flashSaleStock.disable(phone.getId()));
+    }
+
+    private int checkoutConcurrently(List<User> users) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(users.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (User buyer : users) {
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    checkoutService.checkoutCart(buyer.getId(), ADDRESS);
+                    return true;
+                } catch (OutOfStockException | IllegalArgumentException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int placed = 0;
+        for (Future<Boolean> result : results) {
+            placed += result.get() ? 1 : 0;
+        }
+        pool.shutdown();
+        return placed;
+    }
+
+    private int shardTotal(Product product) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(stock), 0) FROM flash_sale_shards WHERE product_id = ?",
+                Integer.class, product.getId());
+    }
+
+    private int stockOf(Product product) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE product_id = ?", Integer.class, product.getId());
+    }
+
+    private Product newProduct(String name, String price, int stock) {
+        return productRepository.save(new Product(name, "", new BigDecimal(price), stock, "Electronics", seller));
+    }
+
+    private User newUser(String role) {
+        User user = new User();
+        user.setName(role);
+        user.setEmail(role.toLowerCase() + System.nanoTime() + "@revshop.com");
+        user.setPassword("secret");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+}
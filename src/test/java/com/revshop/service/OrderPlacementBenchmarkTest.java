@@ -0,0 +1,125 @@
+package com.revshop.service;
+
+import com.revshop.config.IdPoolInitializer;
+import com.revshop.model.Order;
+import com.revshop.model.OrderItem;
+import com.revshop.model.Product;
+import com.revshop.model.User;
+import com.revshop.money.Money;
+import com.revshop.order.OrderIdGenerator;
+import com.revshop.repository.OrderItemRepository;
+import com.revshop.repository.OrderRepository;
+import com.revshop.repository.ProductRepository;
+import com.revshop.repository.UserRepository;
+import com.revshop.search.ProductSuggester;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares batched order placement with the old one-save-per-row path.
+ * Run with: mvn test -Dtest=OrderPlacementBenchmarkTest -Dbenchmark=true
+ * H2 in memory hides network round trips, so against MySQL the gap is larger.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({OrderService.class, ProductSuggester.class, IdPoolInitializer.class, OrderIdGenerator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderPlacementBenchmarkTest {
+
+    private static final int ITEMS_PER_ORDER = 30;
+    private static final int WARMUP_ORDERS = 200;
+    private static final int ORDERS = 1_000;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderIdGenerator orderIdGenerator;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void batchedVersusRowByRow() {
+        User buyer = new User();
+        buyer.setName("Buyer");
+        buyer.setEmail("buyer" + System.nanoTime() + "@revshop.com");
+        buyer.setPassword("secret");
+        buyer.setRole("BUYER");
+        buyer = userRepository.save(buyer);
+        Product product = productRepository.save(new Product("Phone", "", new BigDecimal("19.99"), 100, "Electronics", buyer));
+
+        for (int i = 0; i < WARMUP_ORDERS; i++) {
+            placeRowByRow(newOrder(buyer), newItems(product));
+            orderService.placeOrder(newOrder(buyer), newItems(product));
+        }
+
+        long rowStart = System.nanoTime();
+        for (int i = 0; i < ORDERS; i++) {
+            placeRowByRow(newOrder(buyer), newItems(product));
+        }
+        double rowSeconds = (System.nanoTime() - rowStart) / 1e9;
+
+        long batchStart = System.nanoTime();
+        for (int i = 0; i < ORDERS; i++) {
+            orderService.placeOrder(newOrder(buyer), newItems(product));
+        }
+        double batchSeconds = (System.nanoTime() - batchStart) / 1e9;
+
+        System.out.printf("%d-item orders   row by row: %,8.0f orders/s   batched: %,8.0f orders/s%n",
+                ITEMS_PER_ORDER, ORDERS / rowSeconds, ORDERS / batchSeconds);
+    }
+
+    /**
+     * The checkout path before batching: each save commits on its own, then the order number is saved
+     */
+    private void placeRowByRow(Order order, List<OrderItem> items) {
+        order.setId(orderIdGenerator.nextId());
+        Order savedOrder = orderRepository.save(order);
+        for (OrderItem item : items) {
+            item.setOrderId(savedOrder.getId());
+            orderItemRepository.save(item);
+        }
+        savedOrder.setOrderNumber("ORD-" + savedOrder.getId());
+        orderRepository.save(savedOrder);
+    }
+
+    private static Order newOrder(User buyer) {
+        Order order = new Order();
+        order.setBuyerId(buyer.getId());
+        order.setStatus("PLACED");
+        order.setTotalAmount(Money.ofMinor(1999).times(ITEMS_PER_ORDER));
+        return order;
+    }
+
+    private static List<OrderItem> newItems(Product product) {
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductId(product.getId());
+            item.setProductName("Phone");
+            item.setQuantity(1);
+            item.setPrice(Money.ofMinor(1999));
+            items.add(item);
+        }
+        return items;
+    }
+}
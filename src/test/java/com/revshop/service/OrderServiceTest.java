@@ -0,0 +1,129 @@
+package com.revshop.service;
+
+import com.revshop.config.IdPoolInitializer;
+import com.revshop.model.Order;
+import com.revshop.model.OrderItem;
+import com.revshop.model.Product;
+import com.revshop.model.User;
+import com.revshop.money.Money;
+import com.revshop.order.OrderIdGenerator;
+import com.revshop.repository.OrderItemRepository;
+import com.revshop.search.ProductSuggester;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({OrderService.class, ProductSuggester.class, IdPoolInitializer.class, OrderIdGenerator.class})
+class OrderServiceTest {
+
+    private static final int ITEMS = 30;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private IdPoolInitializer idPoolInitializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User buyer;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        buyer = new User();
+        buyer.setName("Buyer");
+        buyer.setEmail("buyer" + System.nanoTime() + "@revshop.com");
+        buyer.setPassword("secret");
+        buyer.setRole("BUYER");
+        entityManager.persist(buyer);
+        product = new Product("Phone", "", new BigDecimal("19.99"), 100, "Electronics", buyer);
+        entityManager.persist(product);
+        entityManager.flush();
+    }
+
+    @Test
+    void placesALargeOrderInAHandfulOfStatements() {
+        // Warm the pools so the count below only covers the order itself
+        orderService.placeOrder(newOrder(), newItems(1));
+        entityManager.flush();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Order order = orderService.placeOrder(newOrder(), newItems(ITEMS));
+        entityManager.flush();
+
+        // Before: one INSERT per item plus the order, then an UPDATE for the order number
+        assertTrue(statistics.getPrepareStatementCount() <= 4, "statements: " + statistics.getPrepareStatementCount());
+        assertEquals(ITEMS + 1, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+        assertEquals("ORD-" + order.getId(), order.getOrderNumber());
+
+        entityManager.clear();
+        List<OrderItem> saved = orderItemRepository.findByOrderId(order.getId());
+        assertEquals(ITEMS, saved.size());
+        assertEquals(ITEMS, saved.stream().map(OrderItem::getId).distinct().count());
+        assertEquals("ORD-" + order.getId(), orderService.getOrderById(order.getId()).getOrderNumber());
+    }
+
+    @Test
+    void poolsStartAboveRowsWrittenBeforeThem() {
+        Order order = orderService.placeOrder(newOrder(), newItems(1));
+        entityManager.flush();
+        jdbcTemplate.update("INSERT INTO order_items (order_item_id, order_id, product_id, quantity) VALUES (5000, ?, ?, 1)",
+                order.getId(), product.getId());
+        idPoolInitializer.alignPools();
+
+        // The lowest value a pooled generator can hand out from the stored one
+        long nextVal = jdbcTemplate.queryForObject("SELECT next_val FROM id_pool WHERE pool_name = 'order_items'", Long.class);
+        assertTrue(nextVal - IdPoolInitializer.ALLOCATION_SIZE + 1 > 5000);
+    }
+
+    private Order newOrder() {
+        Order order = new Order();
+        order.setBuyerId(buyer.getId());
+        order.setStatus("PLACED");
+        order.setTotalAmount(Money.ofMinor(1999).times(ITEMS));
+        return order;
+    }
+
+    private List<OrderItem> newItems(int count) {
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductId(product.getId());
+            item.setProductName("Phone");
+            item.setQuantity(1);
+            item.setPrice(Money.ofMinor(1999));
+            items.add(item);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,70 @@
+package com.revshop.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revshop.model.Product;
+import com.revshop.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(ProductExportService.class)
+class ProductExportServiceTest {
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void writesOneJsonProductPerLine() throws Exception {
+        User seller = new User();
+        seller.setName("Seller");
+        seller.setEmail("export-seller@revshop.com");
+        seller.setPassword("secret");
+        entityManager.persist(seller);
+        for (int i = 0; i < 3; i++) {
+            entityManager.persist(new Product("Item " + i, "Line " + i + "\nwith newline", new BigDecimal("5.50"), i, "Books", seller));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = productExportService.exportProducts(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, count);
+        assertEquals(3, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("Item 0", first.get("name").asText());
+        assertEquals("Seller", first.get("sellerName").asText());
+
+        out.reset();
+        assertEquals(3, productExportService.writeProductArray(out));
+        JsonNode array = objectMapper.readTree(out.toString(StandardCharsets.UTF_8));
+        assertEquals(3, array.size());
+        assertEquals("Item 2", array.get(2).get("name").asText());
+
+        // An empty catalog is still a valid, empty array
+        entityManager.createQuery("DELETE FROM Product").executeUpdate();
+        out.reset();
+        assertEquals(0, productExportService.writeProductArray(out));
+        assertEquals("[]", out.toString(StandardCharsets.UTF_8));
+    }
+}
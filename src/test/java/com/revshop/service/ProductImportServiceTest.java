@@ -0,0 +1,121 @@
+package com.revshop.service;
+
+import com.revshop.catalog.CatalogVersion;
+import com.revshop.catalog.ProductChangePublisher;
+import com.revshop.dto.ProductImportResult;
+import com.revshop.model.Product;
+import com.revshop.model.User;
+import com.revshop.repository.ProductRepository;
+import com.revshop.repository.UserRepository;
+import com.revshop.search.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({ProductImportService.class, ProductChangePublisher.class, CatalogVersion.class, ProductSearchIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // let each chunk really commit
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    private User seller;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        seller = userRepository.findByEmail("import-seller@revshop.com").orElseGet(() -> {
+            User user = new User();
+            user.setName("Import Seller");
+            user.setEmail("import-seller@revshop.com");
+            user.setPassword("secret");
+            user.setRole("SELLER");
+            return userRepository.save(user);
+        });
+        searchIndex.onCatalogLoaded(List.of());
+    }
+
+    @Test
+    void importsValidRowsInChunksAndReportsInvalidOnes() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            products.add(product("Widget " + i, new BigDecimal("9.99"), 10));
+        }
+        products.set(7, product("", new BigDecimal("9.99"), 10));
+        products.set(1800, product("Broken price", new BigDecimal("-1"), 10));
+
+        ProductImportResult result = productImportService.importProducts(seller.getId(), products);
+
+        assertEquals(2500, result.getReceived());
+        assertEquals(2498, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(8, result.getErrors().get(0).row());
+        assertEquals(1801, result.getErrors().get(1).row());
+        assertEquals(2498, productRepository.count());
+        assertEquals(2498L, productRepository.countBySellerId(seller.getId()));
+
+        // Imported rows reach the in-memory views with their generated IDs
+        assertEquals(2498, searchIndex.size());
+        assertEquals(1, searchIndex.search("widget 2499", 10).size());
+    }
+
+    @Test
+    void importsCsvWithQuotedFields() throws Exception {
+        String csv = """
+                name,description,price,stock,category,Image URL,lowStockThreshold
+                "Desk Lamp, LED","Warm ""soft"" light",24.50,12,Home & Garden,,3
+                Bad Row,Has a bad price,abc,1,Books,,
+                Notebook,"Ruled
+                pages",3.20,100,Books,https://example.com/n.png,
+                """;
+
+        ProductImportResult result = productImportService.importCsv(seller.getId(), new StringReader(csv));
+
+        assertEquals(3, result.getReceived());
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getErrors().get(0).row());
+        assertTrue(result.getErrors().get(0).message().contains("price"));
+
+        Product lamp = productRepository.findByNameContainingIgnoreCase("desk lamp").get(0);
+        assertEquals("Warm \"soft\" light", lamp.getDescription());
+        assertEquals(0, new BigDecimal("24.50").compareTo(lamp.getPrice()));
+        assertEquals(3, lamp.getLowStockThreshold());
+    }
+
+    @Test
+    void rejectsUnknownSeller() {
+        assertThrows(IllegalArgumentException.class,
+                () -> productImportService.importProducts(-42L, List.of(product("Widget", BigDecimal.ONE, 1))));
+    }
+
+    private static Product product(String name, BigDecimal price, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription("Imported product");
+        product.setPrice(price);
+        product.setStock(stock);
+        product.setCategory("Electronics");
+        return product;
+    }
+}
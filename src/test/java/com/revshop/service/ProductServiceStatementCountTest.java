@@ -0,0 +1,195 @@
+package com.revshop.service;
+
+import com.revshop.cache.ProductCache;
+import com.revshop.catalog.CatalogVersion;
+import com.revshop.catalog.CategoryCatalog;
+import com.revshop.catalog.ProductChangePublisher;
+import com.revshop.dto.ProductDTO;
+import com.revshop.dto.ProductPageDTO;
+import com.revshop.inventory.FlashSaleStock;
+import com.revshop.inventory.LowStockTracker;
+import com.revshop.inventory.SellerInventoryAggregates;
+import com.revshop.model.Product;
+import com.revshop.model.User;
+import com.revshop.repository.ProductRepository;
+import com.revshop.repository.UserRepository;
+import com.revshop.search.ProductColumnStore;
+import com.revshop.search.ProductFacetIndex;
+import com.revshop.search.ProductSearchIndex;
+import com.revshop.search.ProductSuggester;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Listing N products must cost the same number of SQL statements as listing one
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ProductService.class, ProductChangePublisher.class, CatalogVersion.class, ProductSearchIndex.class, ProductCache.class, ProductSuggester.class, ProductFacetIndex.class, LowStockTracker.class, CategoryCatalog.class, ProductColumnStore.class, SellerInventoryAggregates.class, FlashSaleStock.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductServiceStatementCountTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private FlashSaleStock flashSaleStock;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User firstSeller;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM flash_sale_shards");
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void listPathsUseOneStatementRegardlessOfSize() {
+        createProducts(1);
+        long allForOne = countStatements(() -> productService.getAllProducts());
+        long categoryForOne = countStatements(() -> productService.getProductsByCategory("electronics"));
+        long sellerForOne = countStatements(() -> productService.getProductsBySeller(firstSeller.getId()));
+        long searchForOne = countStatements(() -> productService.searchProducts("gadget", 100));
+        long pageForOne = countStatements(() -> productService.getProductsPage(null, 100).getItems());
+
+        createProducts(25);
+        assertEquals(allForOne, countStatements(() -> productService.getAllProducts()));
+        assertEquals(categoryForOne, countStatements(() -> productService.getProductsByCategory("electronics")));
+        assertEquals(sellerForOne, countStatements(() -> productService.getProductsBySeller(firstSeller.getId())));
+        assertEquals(searchForOne, countStatements(() -> productService.searchProducts("gadget", 100)));
+        assertEquals(pageForOne, countStatements(() -> productService.getProductsPage(null, 100).getItems()));
+
+        assertEquals(1, allForOne);
+        assertEquals(1, categoryForOne);
+        assertEquals(1, searchForOne);
+        assertEquals(1, pageForOne);
+    }
+
+    @Test
+    void projectionCarriesSellerDetails() {
+        createProducts(3);
+        List<ProductDTO> products = productService.getAllProducts();
+        assertEquals(3, products.size());
+        for (ProductDTO product : products) {
+            assertNotNull(product.getSellerId());
+            assertTrue(product.getSellerName().startsWith("Seller"));
+        }
+    }
+
+    @Test
+    void cursorsWalkEveryProductOnceAndEndOnTheLastPage() {
+        createProducts(5);
+        List<Long> expected = productService.getAllProducts().stream().map(ProductDTO::getId).sorted().toList();
+
+        List<Long> seen = new ArrayList<>();
+        ProductPageDTO page = productService.getProductsPage(null, 2);
+        int pages = 1;
+        while (page.isHasMore()) {
+            assertEquals(2, page.getSize());
+            page.getItems().forEach(product -> seen.add(product.getId()));
+            page = productService.getProductsPage(page.getNextCursor(), 2);
+            pages++;
+        }
+        page.getItems().forEach(product -> seen.add(product.getId()));
+
+        assertEquals(3, pages);
+        assertEquals(1, page.getSize());
+        assertNull(page.getNextCursor());
+        assertEquals(expected, seen);
+
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsPage("not a cursor", 2));
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsPage("YWJj", 2));
+    }
+
+    @Test
+    void searchFallbackMatchesWildcardsLiterally() {
+        createProducts(1);
+        productRepository.save(new Product("Cotton tee", "100% cotton", new BigDecimal("9.99"), 10, "Apparel", firstSeller));
+
+        assertEquals(List.of("Cotton tee"), productService.searchProducts("0% c", 100).stream().map(ProductDTO::getName).toList());
+        assertTrue(productService.searchProducts("%", 100).stream().allMatch(p -> p.getName().equals("Cotton tee")));
+        assertTrue(productService.searchProducts("_", 100).isEmpty());
+        assertTrue(productService.searchProducts("gadget", 0).isEmpty());
+    }
+
+    @Test
+    void updateDuringAFlashSaleKeepsTheStoredStock() {
+        createProducts(1);
+        ProductDTO product = productService.getAllProducts().get(0);
+        flashSaleStock.enable(product.getId(), 2);
+
+        product.setName("Renamed gadget");
+        product.setStock(99);
+        ProductDTO updated = productService.updateProduct(product.getId(), product);
+        assertEquals("Renamed gadget", updated.getName());
+        assertEquals(10, updated.getStock());
+    }
+
+    private void createProducts(int count) {
+        for (int i = 0; i < count; i++) {
+            // A separate seller per product makes any lazy seller lookup show up as an extra statement
+            User seller = new User();
+            seller.setName("Seller " + i);
+            seller.setEmail("seller" + System.nanoTime() + "@revshop.com");
+            seller.setPassword("secret");
+            seller.setRole("SELLER");
+            userRepository.save(seller);
+            if (firstSeller == null) {
+                firstSeller = seller;
+            }
+
+            Product product = new Product("Gadget " + i, "A useful gadget", new BigDecimal("19.99"), 10,
+                    "Electronics", i % 2 == 0 ? firstSeller : seller);
+            productRepository.save(product);
+        }
+    }
+
+    private long countStatements(Supplier<List<ProductDTO>> listCall) {
+        entityManager.clear();
+        statistics.clear();
+        assertFalse(listCall.get().isEmpty());
+        return statistics.getPrepareStatementCount();
+    }
+}